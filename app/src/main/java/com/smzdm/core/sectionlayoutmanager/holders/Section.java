@@ -1,7 +0,0 @@
-package com.smzdm.core.sectionlayoutmanager.holders;
-
-/**
- * @author Rango on 2020/11/6
- */
-public interface Section {
-}
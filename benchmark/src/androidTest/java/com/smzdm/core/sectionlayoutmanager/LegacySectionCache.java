@@ -10,11 +10,11 @@ import java.util.Map;
 import java.util.Stack;
 
 /**
- * 吸顶ViewHolder的缓存
+ * 基于Stack的旧版SectionCache，仅用于基准对比
  *
  * @author Rango on 2020/11/17
  */
-public class SectionCache extends Stack<RecyclerView.ViewHolder> {
+class LegacySectionCache extends Stack<RecyclerView.ViewHolder> {
 
     private Map<Integer, RecyclerView.ViewHolder> filterMap = new HashMap<>(16, 64);
 
@@ -24,9 +24,7 @@ public class SectionCache extends Stack<RecyclerView.ViewHolder> {
             return null;
         }
         int position = item.getLayoutPosition();
-        //避免存在重复的Value
         if (filterMap.containsKey(position)) {
-            //返回null说明没有添加成功
             return null;
         }
         filterMap.put(position, item);
@@ -41,12 +39,6 @@ public class SectionCache extends Stack<RecyclerView.ViewHolder> {
         return super.peek();
     }
 
-    /**
-     * 栈顶清理
-     * 根据LayoutPosition清理
-     *
-     * @param layoutPosition 大于position的内容会被清理
-     */
     public List<RecyclerView.ViewHolder> clearTop(int layoutPosition) {
         List<RecyclerView.ViewHolder> removedViewHolders = new LinkedList<>();
         Iterator<RecyclerView.ViewHolder> it = iterator();
@@ -0,0 +1,94 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.util.Log;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Section密集的列表（每2个item一个Section）中每一步滚动的耗时，几乎每一帧都在发生push-off
+ * 旧版被推出时每帧重新layout吸顶的Section，这里在每一帧之前forceLayout吸顶的Section得到同样的路径作为对比
+ *
+ * @author Rango on 2020/11/20
+ */
+@RunWith(AndroidJUnit4.class)
+public class PushOffFrameBenchmark {
+    private static final String TAG = "PushOffFrameBenchmark";
+    private static final int ITEM_COUNT = 2_000;
+    private static final int SECTION_INTERVAL = 2;
+    private static final int STEP = 16;
+    /**
+     * 设备上的计时有抖动，新路径允许超出旧路径的比例
+     */
+    private static final double TOLERANCE = 1.1;
+
+    @Test
+    public void childMode() {
+        //预热，JIT之后再计时
+        run(SectionLayoutManager.RENDER_MODE_CHILD, 1, true);
+        for (int maxSectionCount : new int[]{1, 3}) {
+            long relayout = run(SectionLayoutManager.RENDER_MODE_CHILD, maxSectionCount, true);
+            long translate = run(SectionLayoutManager.RENDER_MODE_CHILD, maxSectionCount, false);
+            Log.i(TAG, "renderMode=child maxSectionCount=" + maxSectionCount
+                    + " relayout=" + relayout + "ns/frame"
+                    + " translate=" + translate + "ns/frame");
+            assertTrue(translate + " > " + relayout, translate <= relayout * TOLERANCE);
+        }
+    }
+
+    @Test
+    public void overlayMode() {
+        run(SectionLayoutManager.RENDER_MODE_OVERLAY, 1, false);
+        for (int maxSectionCount : new int[]{1, 3}) {
+            long child = run(SectionLayoutManager.RENDER_MODE_CHILD, maxSectionCount, false);
+            long overlay = run(SectionLayoutManager.RENDER_MODE_OVERLAY, maxSectionCount, false);
+            Log.i(TAG, "maxSectionCount=" + maxSectionCount
+                    + " child=" + child + "ns/frame"
+                    + " overlay=" + overlay + "ns/frame");
+            //overlay中的Section不需要每帧detach/attach
+            assertTrue(overlay + " > " + child, overlay <= child * TOLERANCE);
+        }
+    }
+
+    /**
+     * @param relayout 每一帧之前forceLayout吸顶的Section，重现旧版每帧重新layout的路径，只支持RENDER_MODE_CHILD
+     * @return 每一帧的平均耗时
+     */
+    private static long run(int renderMode, int maxSectionCount, boolean relayout) {
+        long[] result = new long[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            MyRecyclerView rlv = new MyRecyclerView(context, null);
+            SectionLayoutManager layoutManager = new SectionLayoutManager(context);
+            layoutManager.setRenderMode(renderMode);
+            layoutManager.setMaxSectionCount(maxSectionCount);
+            rlv.setLayoutManager(layoutManager);
+            rlv.setAdapter(new BenchmarkAdapter(ITEM_COUNT, SECTION_INTERVAL));
+            rlv.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+            rlv.layout(0, 0, 1080, 1920);
+
+            int frames = 0;
+            long start = System.nanoTime();
+            while (rlv.canScrollVertically(1)) {
+                if (relayout) {
+                    //RENDER_MODE_CHILD时吸顶的Section排在child的最后
+                    for (int i = 0; i < layoutManager.getSectionCacheSize(); i++) {
+                        rlv.getChildAt(rlv.getChildCount() - 1 - i).forceLayout();
+                    }
+                }
+                rlv.scrollBy(0, STEP);
+                frames++;
+            }
+            result[0] = (System.nanoTime() - start) / Math.max(1, frames);
+        });
+        return result[0];
+    }
+}
@@ -0,0 +1,125 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.os.Debug;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 每一步滚动中SectionCache的push/clearTop不应该分配对象，预热之后的每一次scrollVerticallyBy（包括跨过Section的）同样不应该分配
+ * JVM上的对应版本见 SectionScrollAllocationTest
+ *
+ * @author Rango on 2020/11/19
+ */
+@RunWith(AndroidJUnit4.class)
+public class SectionCacheAllocationTest {
+    private static final int DEPTH = 3;
+    private static final int STEPS = 1_000;
+    private static final int ITEM_COUNT = 2_000;
+    private static final int SECTION_INTERVAL = 5;
+    private static final int STEP = 16;
+    /**
+     * 预热的帧数，缓存池和内部数组达到稳定大小
+     */
+    private static final int WARMUP_FRAMES = 500;
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void clearTop_doesNotAllocate() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        BenchmarkAdapter adapter = new BenchmarkAdapter(DEPTH * 2, 1);
+        FrameLayout parent = new FrameLayout(context);
+        RecyclerView.ViewHolder[] holders = new RecyclerView.ViewHolder[DEPTH * 2];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = adapter.createViewHolder(parent, BenchmarkAdapter.TYPE_SECTION);
+            adapter.bindViewHolder(holders[i], i);
+        }
+        SectionCache cache = new SectionCache(DEPTH);
+        //预热，让内部数组扩容到稳定大小
+        step(cache, holders, 0);
+        step(cache, holders, holders.length - 1);
+
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        for (int i = 0; i < STEPS; i++) {
+            step(cache, holders, i % holders.length);
+        }
+        int allocations = Debug.getThreadAllocCount();
+        Debug.stopAllocCounting();
+
+        assertEquals(0, allocations);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void scrollVerticallyBy_doesNotAllocate() {
+        int[] result = new int[4];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            MyRecyclerView rlv = new MyRecyclerView(context, null);
+            SectionLayoutManager layoutManager = new SectionLayoutManager(context);
+            layoutManager.setMaxSectionCount(DEPTH);
+            rlv.setLayoutManager(layoutManager);
+            rlv.setAdapter(new BenchmarkAdapter(ITEM_COUNT, SECTION_INTERVAL));
+            rlv.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+            rlv.layout(0, 0, 1080, 1920);
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                rlv.scrollBy(0, STEP);
+            }
+
+            //每一帧单独计数，任何一帧有分配都失败，记录第一个分配的帧
+            int section = layoutManager.findSectionPosition(layoutManager.findFirstVisibleItemPosition());
+            int steps = 0;
+            int crossed = 0;
+            int failedStep = -1;
+            int failedCount = 0;
+            Debug.startAllocCounting();
+            for (int i = 0; i < STEPS && rlv.canScrollVertically(1); i++) {
+                Debug.resetThreadAllocCount();
+                rlv.scrollBy(0, STEP);
+                int count = Debug.getThreadAllocCount();
+                steps++;
+                if (count != 0 && failedStep < 0) {
+                    failedStep = i;
+                    failedCount = count;
+                }
+                int next = layoutManager.findSectionPosition(layoutManager.findFirstVisibleItemPosition());
+                if (next != section) {
+                    section = next;
+                    crossed++;
+                }
+            }
+            Debug.stopAllocCounting();
+            result[0] = steps;
+            result[1] = crossed;
+            result[2] = failedStep;
+            result[3] = failedCount;
+        });
+        assertTrue(result[0] > 0);
+        assertTrue(result[1] > 0);
+        assertEquals("step " + result[2] + " allocated " + result[3] + " objects", -1, result[2]);
+    }
+
+    private static void step(SectionCache cache, RecyclerView.ViewHolder[] holders, int firstVisible) {
+        for (RecyclerView.ViewHolder holder : holders) {
+            cache.push(holder);
+            cache.evict();
+        }
+        int removedCount = cache.clearTop(firstVisible);
+        for (int i = 0; i < removedCount; i++) {
+            cache.getRemoved(i);
+        }
+        cache.releaseRemoved();
+    }
+}
@@ -0,0 +1,108 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.util.Log;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionCache与旧版基于Stack实现的对比
+ * 一帧模拟scrollVerticallyBy中的访问：多次peek、遍历、push、clearTop
+ *
+ * @author Rango on 2020/11/18
+ */
+@RunWith(AndroidJUnit4.class)
+public class SectionCacheBenchmark {
+    private static final String TAG = "SectionCacheBenchmark";
+    private static final int DEPTH = 4;
+    private static final int WARM_UP_FRAMES = 20_000;
+    private static final int FRAMES = 200_000;
+
+    private RecyclerView.ViewHolder[] holders;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        BenchmarkAdapter adapter = new BenchmarkAdapter(DEPTH * 2, 1);
+        FrameLayout parent = new FrameLayout(context);
+        holders = new RecyclerView.ViewHolder[DEPTH * 2];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = adapter.createViewHolder(parent, BenchmarkAdapter.TYPE_SECTION);
+            adapter.bindViewHolder(holders[i], i);
+        }
+    }
+
+    @Test
+    public void compareWithStack() {
+        SectionCache cache = new SectionCache(DEPTH);
+        LegacySectionCache legacy = new LegacySectionCache();
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            frame(cache, i);
+            frame(legacy, i);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            frame(cache, i);
+        }
+        long cacheNs = (System.nanoTime() - start) / FRAMES;
+
+        start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            frame(legacy, i);
+        }
+        long legacyNs = (System.nanoTime() - start) / FRAMES;
+
+        Log.i(TAG, "SectionCache=" + cacheNs + "ns/frame Stack=" + legacyNs + "ns/frame");
+        assertTrue(cache.size() <= DEPTH);
+    }
+
+    private void frame(SectionCache cache, int frame) {
+        int count = 0;
+        for (RecyclerView.ViewHolder holder : holders) {
+            if (cache.peek() != holder) {
+                cache.push(holder);
+                cache.evict();
+            }
+        }
+        for (int i = 0; i < cache.size(); i++) {
+            count += cache.get(i).getItemViewType();
+        }
+        if (cache.peek() != null) {
+            count++;
+        }
+        count += cache.clearTop(frame % holders.length);
+        cache.releaseRemoved();
+        if (count < 0) {
+            throw new AssertionError();
+        }
+    }
+
+    private void frame(LegacySectionCache cache, int frame) {
+        int count = 0;
+        for (RecyclerView.ViewHolder holder : holders) {
+            if (cache.peek() != holder) {
+                cache.push(holder);
+            }
+        }
+        for (RecyclerView.ViewHolder holder : cache) {
+            count += holder.getItemViewType();
+        }
+        if (cache.peek() != null) {
+            count++;
+        }
+        count += cache.clearTop(frame % holders.length).size();
+        if (count < 0) {
+            throw new AssertionError();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 滚动经过10k个Section后SectionCache的大小和堆占用，与旧版基于Stack的LegacySectionCache对比
+ * 旧版把滚过的每个Section都留在栈中，ViewHolder不会回到缓存池，每个Section都要创建新的ViewHolder
+ *
+ * @author Rango on 2020/11/18
+ */
+@RunWith(AndroidJUnit4.class)
+public class SectionCacheMemoryBenchmark {
+    private static final String TAG = "SectionCacheMemory";
+    private static final int SECTION_COUNT = 10_000;
+    private static final int SECTION_INTERVAL = 3;
+    /**
+     * 滚动时缓存池里每种viewType默认最多5个，加上mCachedViews和吸顶的Section，新建的个数有上限
+     */
+    private static final int POOL_SLACK = 10;
+
+    @Test
+    public void scrollThroughSections() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            CountingAdapter adapter = new CountingAdapter();
+
+            //旧版：每个滚过的Section都创建新的ViewHolder并留在LegacySectionCache中
+            FrameLayout parent = new FrameLayout(context);
+            LegacySectionCache legacy = new LegacySectionCache();
+            long legacyBefore = usedHeap();
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                RecyclerView.ViewHolder holder = adapter.createViewHolder(parent, BenchmarkAdapter.TYPE_SECTION);
+                adapter.bindViewHolder(holder, i * SECTION_INTERVAL);
+                legacy.push(holder);
+                legacy.clearTop(i * SECTION_INTERVAL);
+            }
+            long legacyHeap = usedHeap() - legacyBefore;
+            int legacyCached = legacy.size();
+            legacy.clear();
+            adapter.sectionsCreated = 0;
+
+            //新版：SectionCache最多maxSectionCount个，其余交还给缓存池复用
+            MyRecyclerView rlv = new MyRecyclerView(context, null);
+            SectionLayoutManager layoutManager = new SectionLayoutManager(context);
+            rlv.setLayoutManager(layoutManager);
+            rlv.setAdapter(adapter);
+            rlv.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+            rlv.layout(0, 0, 1080, 1920);
+            int createdByLayout = adapter.sectionsCreated;
+
+            long before = usedHeap();
+            while (rlv.canScrollVertically(1)) {
+                rlv.scrollBy(0, 200);
+            }
+            long heap = usedHeap() - before;
+            int cached = layoutManager.getSectionCacheSize();
+            int createdByScroll = adapter.sectionsCreated - createdByLayout;
+
+            Log.i(TAG, "sections=" + SECTION_COUNT
+                    + " legacy: cached=" + legacyCached
+                    + " heap=" + legacyHeap / 1024 + "KB"
+                    + " holders=" + SECTION_COUNT
+                    + " | SectionCache: cached=" + cached
+                    + " heap=" + heap / 1024 + "KB"
+                    + " holders=" + (createdByLayout + createdByScroll));
+            assertEquals(SECTION_COUNT, legacyCached);
+            assertTrue(cached <= layoutManager.getMaxSectionCount());
+            //滚动过程中Section的ViewHolder在缓存池中复用，创建的个数与Section总数无关
+            assertTrue("created " + createdByScroll + " section holders while scrolling",
+                    createdByScroll <= POOL_SLACK);
+            //堆的增长远小于旧版保留10k个ViewHolder的增长
+            assertTrue("heap " + heap + " vs legacy " + legacyHeap, heap < legacyHeap / 10);
+        });
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        runtime.runFinalization();
+        runtime.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class CountingAdapter extends BenchmarkAdapter {
+        int sectionsCreated;
+
+        CountingAdapter() {
+            super(SECTION_COUNT * SECTION_INTERVAL, SECTION_INTERVAL);
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            if (viewType == TYPE_SECTION) {
+                sectionsCreated++;
+            }
+            return super.onCreateViewHolder(parent, viewType);
+        }
+    }
+}
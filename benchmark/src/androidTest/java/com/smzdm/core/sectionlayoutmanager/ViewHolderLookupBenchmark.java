@@ -0,0 +1,92 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.util.Log;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 对比反射获取ViewHolder与RecyclerView.getChildViewHolder的单帧耗时
+ * 一帧 = 遍历一次所有已经attach的child
+ *
+ * @author Rango on 2020/11/18
+ */
+@RunWith(AndroidJUnit4.class)
+public class ViewHolderLookupBenchmark {
+    private static final String TAG = "LookupBenchmark";
+    private static final int WARM_UP_FRAMES = 2_000;
+    private static final int FRAMES = 20_000;
+
+    @Test
+    public void lookupPerFrame() throws Throwable {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            MyRecyclerView rlv = new MyRecyclerView(context, null);
+            SectionLayoutManager layoutManager = new SectionLayoutManager(context);
+            rlv.setLayoutManager(layoutManager);
+            rlv.setAdapter(new BenchmarkAdapter(50, 20));
+            rlv.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+            rlv.layout(0, 0, 1080, 1920);
+
+            int childCount = rlv.getChildCount();
+            assertTrue(childCount > 0);
+            for (int i = 0; i < childCount; i++) {
+                View child = rlv.getChildAt(i);
+                assertSame(reflect(child), layoutManager.getViewHolderByView(child));
+            }
+
+            long reflectNs = measure(rlv, layoutManager, true);
+            long publicNs = measure(rlv, layoutManager, false);
+            Log.i(TAG, "children=" + childCount
+                    + " reflection=" + reflectNs + "ns/frame"
+                    + " getChildViewHolder=" + publicNs + "ns/frame");
+        });
+    }
+
+    private static long measure(RecyclerView rlv, SectionLayoutManager layoutManager, boolean reflection) {
+        Object sink = null;
+        for (int frame = 0; frame < WARM_UP_FRAMES; frame++) {
+            for (int i = 0; i < rlv.getChildCount(); i++) {
+                View child = rlv.getChildAt(i);
+                sink = reflection ? reflect(child) : layoutManager.getViewHolderByView(child);
+            }
+        }
+        long start = System.nanoTime();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            for (int i = 0; i < rlv.getChildCount(); i++) {
+                View child = rlv.getChildAt(i);
+                sink = reflection ? reflect(child) : layoutManager.getViewHolderByView(child);
+            }
+        }
+        long cost = (System.nanoTime() - start) / FRAMES;
+        assertTrue(sink != null);
+        return cost;
+    }
+
+    /**
+     * 原有实现：每次调用都getDeclaredField + setAccessible
+     */
+    private static RecyclerView.ViewHolder reflect(View view) {
+        try {
+            RecyclerView.LayoutParams lp = ((RecyclerView.LayoutParams) view.getLayoutParams());
+            Field viewHolderField = lp.getClass().getDeclaredField("mViewHolder");
+            viewHolderField.setAccessible(true);
+            return (RecyclerView.ViewHolder) viewHolderField.get(lp);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
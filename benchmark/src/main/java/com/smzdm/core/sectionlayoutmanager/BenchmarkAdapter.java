@@ -0,0 +1,66 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.smzdm.core.sectionlayoutmanager.benchmark.R;
+import com.smzdm.core.sectionlayoutmanager.holders.Section;
+
+/**
+ * 测试用Adapter，每sectionInterval个item一个Section
+ * 布局与sample一致，不依赖sample模块
+ *
+ * @author Rango on 2020/11/18
+ */
+class BenchmarkAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+    static final int TYPE_SECTION = 0;
+    static final int TYPE_ITEM = 1;
+
+    private final int itemCount;
+    private final int sectionInterval;
+
+    BenchmarkAdapter(int itemCount, int sectionInterval) {
+        this.itemCount = itemCount;
+        this.sectionInterval = sectionInterval;
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == TYPE_SECTION) {
+            return new SectionHolder(inflater.inflate(R.layout.benchmark_section_layout, parent, false));
+        }
+        return new ItemHolder(inflater.inflate(R.layout.benchmark_item_layout, parent, false));
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return position % sectionInterval == 0 ? TYPE_SECTION : TYPE_ITEM;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+    }
+
+    @Override
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    static class SectionHolder extends RecyclerView.ViewHolder implements Section {
+        SectionHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    static class ItemHolder extends RecyclerView.ViewHolder {
+        ItemHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+}
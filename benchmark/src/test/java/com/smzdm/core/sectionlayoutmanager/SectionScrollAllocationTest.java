@@ -0,0 +1,96 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * SectionCacheAllocationTest 在JVM上的版本，不需要模拟器：
+ * 预热之后的每一次scrollBy（包括跨过Section的）都不应该分配，
+ * 通过 com.sun.management.ThreadMXBean#getThreadAllocatedBytes 统计当前线程分配的字节数
+ *
+ * @author Rango on 2020/11/27
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionScrollAllocationTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int DEPTH = 3;
+    private static final int STEPS = 1_000;
+    private static final int ITEM_COUNT = 2_000;
+    private static final int SECTION_INTERVAL = 5;
+    private static final int STEP = 16;
+    /**
+     * 预热的帧数，缓存池和内部数组达到稳定大小
+     */
+    private static final int WARMUP_FRAMES = 500;
+
+    @Test
+    public void scrollVerticallyBy_doesNotAllocate() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        Context context = ApplicationProvider.getApplicationContext();
+        MyRecyclerView rlv = new MyRecyclerView(context, null);
+        SectionLayoutManager layoutManager = new SectionLayoutManager(context);
+        layoutManager.setMaxSectionCount(DEPTH);
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(new BenchmarkAdapter(ITEM_COUNT, SECTION_INTERVAL));
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, WIDTH, HEIGHT);
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            rlv.scrollBy(0, STEP);
+        }
+
+        //部分JDK中getThreadAllocatedBytes(long)本身会分配数组，先测出两次连续调用之间的差值
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            overhead = Math.min(overhead, threads.getThreadAllocatedBytes(thread) - before);
+        }
+
+        //每一帧单独计数，任何一帧有分配都失败，记录第一个分配的帧
+        int section = layoutManager.findSectionPosition(layoutManager.findFirstVisibleItemPosition());
+        int steps = 0;
+        int crossed = 0;
+        int failedStep = -1;
+        long failedBytes = 0;
+        for (int i = 0; i < STEPS && rlv.canScrollVertically(1); i++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            rlv.scrollBy(0, STEP);
+            long bytes = threads.getThreadAllocatedBytes(thread) - before - overhead;
+            steps++;
+            if (bytes > 0 && failedStep < 0) {
+                failedStep = i;
+                failedBytes = bytes;
+            }
+            int next = layoutManager.findSectionPosition(layoutManager.findFirstVisibleItemPosition());
+            if (next != section) {
+                section = next;
+                crossed++;
+            }
+        }
+        assertTrue(steps > 0);
+        assertTrue(crossed > 0);
+        assertEquals("step " + failedStep + " allocated " + failedBytes + " bytes", -1, failedStep);
+    }
+}
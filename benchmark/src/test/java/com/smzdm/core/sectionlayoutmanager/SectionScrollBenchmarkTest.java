@@ -0,0 +1,151 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 不需要模拟器的滚动基准，在Robolectric中驱动SectionLayoutManager做脚本化的fling
+ * 统计每次scrollBy的耗时和每帧分配的字节数，计时期间不设置OnScrollMetricsListener，统计代码不会计入结果
+ * 每个item数和Section密度的组合在 section-scroll-baseline.properties 中有各自的基线，
+ * 超过 基线 * sectionBenchmark.tolerance 时失败；sectionBenchmark.record=true 时只输出新的基线，不做断言
+ *
+ * @author Rango on 2020/11/21
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionScrollBenchmarkTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int WARM_UP_FLINGS = 2;
+    private static final int FLINGS = 10;
+    /**
+     * 一次fling的初速度（px/帧）和每帧的衰减
+     */
+    private static final float FLING_VELOCITY = 400;
+    private static final float FLING_DECAY = 0.96f;
+    private static final String BASELINE = "/section-scroll-baseline.properties";
+    /**
+     * 分配的基线接近0，按比例放宽没有意义，另外留出固定的余量
+     */
+    private static final long BYTES_SLACK = 512;
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "items={0} sectionInterval={1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (int itemCount : new int[]{1_000, 100_000, 1_000_000}) {
+            for (int sectionInterval : new int[]{2, 20, 200}) {
+                parameters.add(new Object[]{itemCount, sectionInterval});
+            }
+        }
+        return parameters;
+    }
+
+    private final int itemCount;
+    private final int sectionInterval;
+    private long scrollNanos;
+
+    public SectionScrollBenchmarkTest(int itemCount, int sectionInterval) {
+        this.itemCount = itemCount;
+        this.sectionInterval = sectionInterval;
+    }
+
+    @Test
+    public void fling() throws IOException {
+        Context context = ApplicationProvider.getApplicationContext();
+        MyRecyclerView rlv = new MyRecyclerView(context, null);
+        SectionLayoutManager layoutManager = new SectionLayoutManager(context);
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(new BenchmarkAdapter(itemCount, sectionInterval));
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, WIDTH, HEIGHT);
+
+        for (int i = 0; i < WARM_UP_FLINGS; i++) {
+            fling(rlv, 1);
+            fling(rlv, -1);
+        }
+
+        scrollNanos = 0;
+        long bytesBefore = allocatedBytes();
+        int frames = 0;
+        for (int i = 0; i < FLINGS; i++) {
+            frames += fling(rlv, i % 2 == 0 ? 1 : -1);
+        }
+        long bytesPerFrame = (allocatedBytes() - bytesBefore) / Math.max(1, frames);
+        long nsPerScroll = scrollNanos / Math.max(1, frames);
+
+        String key = itemCount + "." + sectionInterval;
+        if (Boolean.getBoolean("sectionBenchmark.record")) {
+            System.out.println(key + ".nsPerScroll=" + nsPerScroll);
+            System.out.println(key + ".bytesPerFrame=" + bytesPerFrame);
+            return;
+        }
+        System.out.println("SectionScrollBenchmark items=" + itemCount
+                + " sectionInterval=" + sectionInterval
+                + " frames=" + frames
+                + " ns/scroll=" + nsPerScroll
+                + " bytes/frame=" + bytesPerFrame);
+
+        Properties baseline = loadBaseline();
+        double tolerance = Double.parseDouble(System.getProperty("sectionBenchmark.tolerance", "1.3"));
+        long maxNsPerScroll = (long) (Long.parseLong(baseline.getProperty(key + ".nsPerScroll")) * tolerance);
+        long maxBytesPerFrame = (long) (Long.parseLong(baseline.getProperty(key + ".bytesPerFrame")) * tolerance)
+                + BYTES_SLACK;
+        assertTrue("ns/scroll " + nsPerScroll + " > " + maxNsPerScroll, nsPerScroll <= maxNsPerScroll);
+        assertTrue("bytes/frame " + bytesPerFrame + " > " + maxBytesPerFrame, bytesPerFrame <= maxBytesPerFrame);
+    }
+
+    private static Properties loadBaseline() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = SectionScrollBenchmarkTest.class.getResourceAsStream(BASELINE)) {
+            assertNotNull(BASELINE, in);
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    /**
+     * 模拟一次fling：初速度逐帧衰减，直到速度小于1px或到达边界
+     *
+     * @return 帧数
+     */
+    private int fling(RecyclerView rlv, int direction) {
+        int frames = 0;
+        float velocity = FLING_VELOCITY;
+        while (velocity >= 1 && rlv.canScrollVertically(direction)) {
+            long start = System.nanoTime();
+            rlv.scrollBy(0, (int) (velocity * direction));
+            scrollNanos += System.nanoTime() - start;
+            velocity *= FLING_DECAY;
+            frames++;
+        }
+        return frames;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
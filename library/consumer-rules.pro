@@ -0,0 +1,15 @@
+# SectionLayoutManager的R8/ProGuard规则，随aar一起分发给依赖方
+
+# 通过 app:layoutManager 在xml中声明时，RecyclerView会反射调用这个构造方法
+-keep public class com.smzdm.core.sectionlayoutmanager.SectionLayoutManager {
+    public <init>(android.content.Context, android.util.AttributeSet, int, int);
+}
+-keep public class * extends com.smzdm.core.sectionlayoutmanager.SectionLayoutManager {
+    public <init>(android.content.Context, android.util.AttributeSet, int, int);
+}
+
+# 在布局xml中声明的RecyclerView
+-keep public class com.smzdm.core.sectionlayoutmanager.MyRecyclerView {
+    public <init>(android.content.Context, android.util.AttributeSet);
+}
+
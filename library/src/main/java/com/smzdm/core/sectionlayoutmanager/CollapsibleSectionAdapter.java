@@ -0,0 +1,413 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.util.LongSparseArray;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+
+/**
+ * 包装一个实现了 {@link SectionProvider} 的adapter，支持折叠/展开Section，原adapter的数据不需要变化
+ * 折叠时只通知一次 notifyItemRangeRemoved/Inserted，SectionLayoutManager平移索引后重新布局可见区域，
+ * 可见position与原adapter position的映射由 {@link CollapseIndex} 完成，O(log n)
+ * 1. 折叠状态按sectionId记录，原adapter notifyDataSetChanged之后保留
+ * 2. 原adapter中的插入、删除、不涉及Section的移动在SectionIndex和CollapseIndex中原地更新，转换为折叠后的range通知，
+ * 折叠的Section中的变化不通知；增删Section改变了其它item的可见性时通知notifyDataSetChanged
+ * 3. ViewHolder的getAdapterPosition()是折叠后的position，通过 {@link #toAdapterPosition(int)} 转换
+ * 4. 只在attach到RecyclerView期间监听原adapter，attach时重新分段
+ *
+ * @author Rango on 2020/11/25
+ */
+public class CollapsibleSectionAdapter<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH>
+        implements SectionProvider {
+    private final RecyclerView.Adapter<VH> adapter;
+    private final SectionProvider provider;
+    private final SectionIndex sections = new SectionIndex();
+    private final CollapseIndex collapseIndex = new CollapseIndex();
+    /**
+     * 折叠的sectionId，只使用key；rebuild时用foundIds收集仍然存在的id后交换
+     */
+    private LongSparseArray<Boolean> collapsedIds = new LongSparseArray<>();
+    private LongSparseArray<Boolean> foundIds = new LongSparseArray<>();
+    private final Observer observer = new Observer();
+    private int attachedCount;
+
+    public <A extends RecyclerView.Adapter<VH> & SectionProvider> CollapsibleSectionAdapter(@NonNull A adapter) {
+        this.adapter = adapter;
+        this.provider = adapter;
+        super.setHasStableIds(adapter.hasStableIds());
+        rebuild();
+    }
+
+    /**
+     * O(n) 重新分段，并按sectionId恢复折叠状态
+     */
+    private void rebuild() {
+        sections.clear();
+        int itemCount = adapter.getItemCount();
+        for (int position = 0; position < itemCount; position++) {
+            if (provider.isSectionHeader(position)) {
+                sections.add(position);
+            }
+        }
+        collapseIndex.reset(sections, itemCount);
+        if (collapsedIds.size() == 0) {
+            return;
+        }
+        foundIds.clear();
+        for (int i = 0; i < sections.size(); i++) {
+            long id = provider.getSectionId(sections.get(i));
+            if (collapsedIds.indexOfKey(id) >= 0) {
+                collapseIndex.setCollapsed(sections.get(i), true);
+                foundIds.put(id, Boolean.TRUE);
+            }
+        }
+        retainFoundIds();
+    }
+
+    /**
+     * 已经不存在的Section不再记录
+     */
+    private void retainFoundIds() {
+        LongSparseArray<Boolean> ids = collapsedIds;
+        collapsedIds = foundIds;
+        foundIds = ids;
+        foundIds.clear();
+    }
+
+    /**
+     * 删除了折叠的Section之后，从剩下的Section中收集折叠的id，O(n)，只在这种情况下执行
+     */
+    private void pruneCollapsedIds() {
+        foundIds.clear();
+        for (int i = 0; i < sections.size(); i++) {
+            int position = sections.get(i);
+            if (collapseIndex.isCollapsed(position)) {
+                long id = provider.getSectionId(position);
+                if (collapsedIds.indexOfKey(id) >= 0) {
+                    foundIds.put(id, Boolean.TRUE);
+                }
+            }
+        }
+        retainFoundIds();
+    }
+
+    public RecyclerView.Adapter<VH> getWrappedAdapter() {
+        return adapter;
+    }
+
+    /**
+     * @param position 折叠后的position
+     * @return 原adapter的position
+     */
+    public int toAdapterPosition(int position) {
+        return collapseIndex.toAdapterPosition(position);
+    }
+
+    /**
+     * @param adapterPosition 原adapter的position
+     * @return 折叠后的position，在折叠的Section中时返回 {@link RecyclerView#NO_POSITION}
+     */
+    public int toVisiblePosition(int adapterPosition) {
+        int position = collapseIndex.toVisiblePosition(adapterPosition);
+        return position == CollapseIndex.NO_POSITION ? RecyclerView.NO_POSITION : position;
+    }
+
+    /**
+     * @param position 折叠后的position
+     */
+    public boolean isSectionCollapsed(int position) {
+        return collapseIndex.isCollapsed(toAdapterPosition(position));
+    }
+
+    /**
+     * @param position 折叠后的position，不是Section时忽略
+     * @return 状态是否变化
+     */
+    public boolean setSectionCollapsed(int position, boolean collapsed) {
+        int adapterPosition = toAdapterPosition(position);
+        if (!provider.isSectionHeader(adapterPosition) || collapseIndex.isCollapsed(adapterPosition) == collapsed) {
+            return false;
+        }
+        long id = provider.getSectionId(adapterPosition);
+        if (id != RecyclerView.NO_ID) {
+            if (collapsed) {
+                collapsedIds.put(id, Boolean.TRUE);
+            } else {
+                collapsedIds.remove(id);
+            }
+        }
+        int changed = collapseIndex.setCollapsed(adapterPosition, collapsed);
+        if (changed > 0) {
+            if (collapsed) {
+                notifyItemRangeRemoved(position + 1, changed);
+            } else {
+                notifyItemRangeInserted(position + 1, changed);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param position 折叠后的position
+     */
+    public boolean toggleSection(int position) {
+        return setSectionCollapsed(position, !isSectionCollapsed(position));
+    }
+
+    @Override
+    public boolean isSectionHeader(int position) {
+        return provider.isSectionHeader(toAdapterPosition(position));
+    }
+
+    @Override
+    public long getSectionId(int position) {
+        return provider.getSectionId(toAdapterPosition(position));
+    }
+
+    @NonNull
+    @Override
+    public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return adapter.onCreateViewHolder(parent, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull VH holder, int position) {
+        adapter.onBindViewHolder(holder, toAdapterPosition(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull VH holder, int position, @NonNull List<Object> payloads) {
+        adapter.onBindViewHolder(holder, toAdapterPosition(position), payloads);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return adapter.getItemViewType(toAdapterPosition(position));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return adapter.getItemId(toAdapterPosition(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return collapseIndex.getVisibleCount();
+    }
+
+    /**
+     * 与原adapter一致时忽略，否则同时设置原adapter，和RecyclerView.Adapter一样需要在setAdapter之前调用
+     */
+    @Override
+    public void setHasStableIds(boolean hasStableIds) {
+        if (hasStableIds == hasStableIds()) {
+            return;
+        }
+        adapter.setHasStableIds(hasStableIds);
+        super.setHasStableIds(hasStableIds);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull VH holder) {
+        adapter.onViewRecycled(holder);
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(@NonNull VH holder) {
+        return adapter.onFailedToRecycleView(holder);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull VH holder) {
+        adapter.onViewAttachedToWindow(holder);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull VH holder) {
+        adapter.onViewDetachedFromWindow(holder);
+    }
+
+    /**
+     * 没有监听期间原adapter可能已经变化，第一次attach时重新分段
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        if (attachedCount++ == 0) {
+            rebuild();
+            adapter.registerAdapterDataObserver(observer);
+        }
+        adapter.onAttachedToRecyclerView(recyclerView);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        adapter.onDetachedFromRecyclerView(recyclerView);
+        if (--attachedCount == 0) {
+            adapter.unregisterAdapterDataObserver(observer);
+        }
+    }
+
+    /**
+     * @return [positionStart, positionStart + itemCount) 依次对应从visibleStart开始的可见position
+     */
+    private boolean isVisibleRange(int positionStart, int itemCount, int visibleStart) {
+        for (int i = 0; i < itemCount; i++) {
+            if (collapseIndex.toVisiblePosition(positionStart + i) != visibleStart + i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 删除前的 [positionStart, positionStart + itemCount) 中是否有Section
+     */
+    private boolean containsSection(int positionStart, int itemCount) {
+        int next = sections.nextSection(positionStart - 1);
+        return next != SectionIndex.NO_POSITION && next < positionStart + itemCount;
+    }
+
+    private class Observer extends RecyclerView.AdapterDataObserver {
+        @Override
+        public void onChanged() {
+            rebuild();
+            notifyDataSetChanged();
+        }
+
+        /**
+         * Section没有变化并且全部可见时直接转发，否则重新分段
+         */
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            for (int position = positionStart; position < positionStart + itemCount; position++) {
+                if (provider.isSectionHeader(position) != sections.contains(position)) {
+                    onChanged();
+                    return;
+                }
+            }
+            int first = toVisiblePosition(positionStart);
+            int last = toVisiblePosition(positionStart + itemCount - 1);
+            if (first != RecyclerView.NO_POSITION && last - first == itemCount - 1) {
+                notifyItemRangeChanged(first, itemCount, payload);
+            } else {
+                onChanged();
+            }
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            onItemRangeChanged(positionStart, itemCount, null);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            for (int position = positionStart; position < positionStart + itemCount; position++) {
+                if (provider.isSectionHeader(position)) {
+                    onSectionsInserted(positionStart, itemCount);
+                    return;
+                }
+            }
+            sections.insertRange(positionStart, itemCount);
+            int visible = collapseIndex.insertItems(positionStart, itemCount);
+            if (visible != CollapseIndex.NO_POSITION) {
+                notifyItemRangeInserted(visible, itemCount);
+            }
+        }
+
+        /**
+         * 在SectionIndex和CollapseIndex中原地插入，按sectionId恢复新Section的折叠状态，
+         * 插入的item全部可见并且没有改变其它item的可见性时仍然转发range通知
+         */
+        private void onSectionsInserted(int positionStart, int itemCount) {
+            int visibleCount = getItemCount();
+            int first = positionStart < collapseIndex.getItemCount()
+                    ? collapseIndex.toVisiblePosition(positionStart) : visibleCount;
+            sections.insertRange(positionStart, itemCount);
+            for (int position = positionStart; position < positionStart + itemCount; position++) {
+                if (provider.isSectionHeader(position)) {
+                    sections.add(position);
+                }
+            }
+            collapseIndex.insertSections(positionStart, itemCount, sections);
+            if (collapsedIds.size() > 0) {
+                for (int position = positionStart; position < positionStart + itemCount; position++) {
+                    if (sections.contains(position) && collapsedIds.indexOfKey(provider.getSectionId(position)) >= 0) {
+                        collapseIndex.setCollapsed(position, true);
+                    }
+                }
+            }
+            int checked = positionStart + itemCount < collapseIndex.getItemCount() ? itemCount + 1 : itemCount;
+            if (first != RecyclerView.NO_POSITION && getItemCount() == visibleCount + itemCount
+                    && isVisibleRange(positionStart, checked, first)) {
+                notifyItemRangeInserted(first, itemCount);
+            } else {
+                notifyDataSetChanged();
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            if (containsSection(positionStart, itemCount)) {
+                onSectionsRemoved(positionStart, itemCount);
+                return;
+            }
+            sections.removeRange(positionStart, itemCount);
+            int visible = collapseIndex.removeItems(positionStart, itemCount);
+            if (visible != CollapseIndex.NO_POSITION) {
+                notifyItemRangeRemoved(visible, itemCount);
+            }
+        }
+
+        /**
+         * 在SectionIndex和CollapseIndex中原地删除，被删除的item原来全部可见并且没有改变其它item的可见性时仍然转发range通知
+         */
+        private void onSectionsRemoved(int positionStart, int itemCount) {
+            int visibleCount = getItemCount();
+            int first = collapseIndex.toVisiblePosition(positionStart);
+            boolean visible = first != RecyclerView.NO_POSITION && isVisibleRange(positionStart, itemCount, first);
+            boolean collapsedRemoved = false;
+            for (int position = sections.nextSection(positionStart - 1);
+                 position != SectionIndex.NO_POSITION && position < positionStart + itemCount;
+                 position = sections.nextSection(position)) {
+                collapsedRemoved |= collapseIndex.isCollapsed(position);
+            }
+            sections.removeRange(positionStart, itemCount);
+            collapseIndex.removeSections(positionStart, itemCount);
+            if (collapsedRemoved) {
+                pruneCollapsedIds();
+            }
+            if (visible && getItemCount() == visibleCount - itemCount && (positionStart >= collapseIndex.getItemCount()
+                    || collapseIndex.toVisiblePosition(positionStart) == first)) {
+                notifyItemRangeRemoved(first, itemCount);
+            } else {
+                notifyDataSetChanged();
+            }
+        }
+
+        /**
+         * 移动普通item时先删除再插入，两端都可见时转发为move
+         */
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (itemCount != 1 || sections.contains(fromPosition) || provider.isSectionHeader(toPosition)) {
+                onChanged();
+                return;
+            }
+            sections.removeRange(fromPosition, 1);
+            sections.insertRange(toPosition, 1);
+            int from = collapseIndex.removeItems(fromPosition, 1);
+            int to = collapseIndex.insertItems(toPosition, 1);
+            if (from != CollapseIndex.NO_POSITION && to != CollapseIndex.NO_POSITION) {
+                notifyItemMoved(from, to);
+            } else if (from != CollapseIndex.NO_POSITION) {
+                notifyItemRemoved(from);
+            } else if (to != CollapseIndex.NO_POSITION) {
+                notifyItemInserted(to);
+            }
+        }
+    }
+}
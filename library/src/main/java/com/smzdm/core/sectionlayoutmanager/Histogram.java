@@ -0,0 +1,89 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+/**
+ * 以2的幂为边界的直方图，bucket i 统计 [2^(i-1), 2^i) 的值，bucket 0 统计 <= 0 的值
+ * 记录不分配对象，适合在每一帧调用
+ *
+ * @author Rango on 2020/11/20
+ */
+public class Histogram {
+    public static final int BUCKET_COUNT = 64;
+
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long count;
+    private long sum;
+    private long max;
+
+    public void record(long value) {
+        buckets[bucketOf(value)]++;
+        count++;
+        if (value > 0) {
+            sum += value;
+            max = Math.max(max, value);
+        }
+    }
+
+    /**
+     * @return value所在的bucket
+     */
+    public static int bucketOf(long value) {
+        if (value <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * @return bucket的上边界（不包含）
+     */
+    public static long upperBound(int bucket) {
+        if (bucket <= 0) {
+            return 1;
+        }
+        return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    public long getBucket(int bucket) {
+        return buckets[bucket];
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile (0, 100]
+     * @return 百分位所在bucket的上边界，没有数据时返回0
+     */
+    public long percentileUpperBound(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKET_COUNT - 1);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = 0;
+        }
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+}
@@ -0,0 +1,79 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+/**
+ * 一次scrollVerticallyBy/scrollHorizontallyBy的统计数据，由 {@link SectionLayoutManager} 复用同一个实例，
+ * 只在 {@link SectionLayoutManager.OnScrollMetricsListener#onScrollMetrics(ScrollMetrics)} 回调期间有效
+ *
+ * @author Rango on 2020/11/20
+ */
+public final class ScrollMetrics {
+    long scrollNanos;
+    int sectionsPushed;
+    int sectionsPopped;
+    int viewsAttached;
+    int viewsDetached;
+    int relayouts;
+    int cacheSize;
+
+    ScrollMetrics() {
+    }
+
+    /**
+     * @return scrollVerticallyBy/scrollHorizontallyBy的耗时
+     */
+    public long getScrollNanos() {
+        return scrollNanos;
+    }
+
+    /**
+     * @return 进入SectionCache的Section个数
+     */
+    public int getSectionsPushed() {
+        return sectionsPushed;
+    }
+
+    /**
+     * @return 离开SectionCache的Section个数（出栈或淘汰）
+     */
+    public int getSectionsPopped() {
+        return sectionsPopped;
+    }
+
+    /**
+     * @return addView/attachView的次数
+     */
+    public int getViewsAttached() {
+        return viewsAttached;
+    }
+
+    /**
+     * @return removeView/detachView的次数
+     */
+    public int getViewsDetached() {
+        return viewsDetached;
+    }
+
+    /**
+     * @return 吸顶Section重新layout的次数
+     */
+    public int getRelayouts() {
+        return relayouts;
+    }
+
+    /**
+     * @return 本次滚动结束后SectionCache的大小
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    void reset() {
+        scrollNanos = 0;
+        sectionsPushed = 0;
+        sectionsPopped = 0;
+        viewsAttached = 0;
+        viewsDetached = 0;
+        relayouts = 0;
+        cacheSize = 0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+/**
+ * 把每次滚动的 {@link ScrollMetrics} 汇总成直方图，定期读取后上报并 {@link #reset()}
+ *
+ * @author Rango on 2020/11/20
+ */
+public class ScrollMetricsAggregator implements SectionLayoutManager.OnScrollMetricsListener {
+    private final Histogram scrollNanos = new Histogram();
+    private final Histogram sectionsPushed = new Histogram();
+    private final Histogram sectionsPopped = new Histogram();
+    private final Histogram viewsAttached = new Histogram();
+    private final Histogram viewsDetached = new Histogram();
+    private final Histogram relayouts = new Histogram();
+    private final Histogram cacheSize = new Histogram();
+
+    @Override
+    public void onScrollMetrics(ScrollMetrics metrics) {
+        scrollNanos.record(metrics.getScrollNanos());
+        sectionsPushed.record(metrics.getSectionsPushed());
+        sectionsPopped.record(metrics.getSectionsPopped());
+        viewsAttached.record(metrics.getViewsAttached());
+        viewsDetached.record(metrics.getViewsDetached());
+        relayouts.record(metrics.getRelayouts());
+        cacheSize.record(metrics.getCacheSize());
+    }
+
+    public Histogram getScrollNanos() {
+        return scrollNanos;
+    }
+
+    public Histogram getSectionsPushed() {
+        return sectionsPushed;
+    }
+
+    public Histogram getSectionsPopped() {
+        return sectionsPopped;
+    }
+
+    public Histogram getViewsAttached() {
+        return viewsAttached;
+    }
+
+    public Histogram getViewsDetached() {
+        return viewsDetached;
+    }
+
+    public Histogram getRelayouts() {
+        return relayouts;
+    }
+
+    public Histogram getCacheSize() {
+        return cacheSize;
+    }
+
+    public void reset() {
+        scrollNanos.reset();
+        sectionsPushed.reset();
+        sectionsPopped.reset();
+        viewsAttached.reset();
+        viewsDetached.reset();
+        relayouts.reset();
+        cacheSize.reset();
+    }
+}
@@ -0,0 +1,333 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * 吸顶ViewHolder的缓存
+ * 只在UI线程访问，不做同步；栈内按LayoutPosition升序排列（栈底最小，栈顶最大），
+ * {@link #setDescending(boolean)} 之后降序排列，用于reverseLayout，下面的"大于/小于"相应颠倒
+ *
+ * @author Rango on 2020/11/17
+ */
+public class SectionCache {
+
+    private RecyclerView.ViewHolder[] holders;
+    /**
+     * 与holders一一对应的LayoutPosition，入栈时记录
+     */
+    private int[] positions;
+    /**
+     * 与holders一一对应的sectionId，见 {@link SectionProvider#getSectionId(int)}，没有时为 {@link RecyclerView#NO_ID}
+     */
+    private long[] ids;
+    private int size;
+
+    /**
+     * clearTop移除的ViewHolder，复用同一个数组，避免每帧分配
+     */
+    private RecyclerView.ViewHolder[] removed;
+    private int removedCount;
+
+    /**
+     * 最多缓存的个数，超出后栈底的ViewHolder会被淘汰
+     */
+    private int maxSize;
+
+    private boolean descending;
+
+    public SectionCache(int maxSize) {
+        setMaxSize(maxSize);
+        holders = new RecyclerView.ViewHolder[maxSize + 1];
+        positions = new int[maxSize + 1];
+        ids = new long[maxSize + 1];
+        removed = new RecyclerView.ViewHolder[maxSize + 1];
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be >= 1, but was " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * 只能在栈为空时切换
+     */
+    public void setDescending(boolean descending) {
+        if (size > 0 && descending != this.descending) {
+            throw new IllegalStateException("SectionCache is not empty");
+        }
+        this.descending = descending;
+    }
+
+    /**
+     * @return 按栈的顺序a是否在b之后
+     */
+    private boolean isAfter(int a, int b) {
+        return descending ? a < b : a > b;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index 0为栈底
+     */
+    public RecyclerView.ViewHolder get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return holders[index];
+    }
+
+    /**
+     * @param index 0为栈底
+     * @return 入栈时记录的LayoutPosition
+     */
+    public int positionAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return positions[index];
+    }
+
+    /**
+     * @param index 0为栈底
+     * @return 入栈时记录的sectionId
+     */
+    public long idAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return ids[index];
+    }
+
+    /**
+     * 数据整体刷新后，根据sectionId找到的新position，调用方需要保证栈内仍然有序
+     */
+    public void setPositionAt(int index, int position) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        positions[index] = position;
+    }
+
+    public RecyclerView.ViewHolder push(RecyclerView.ViewHolder item) {
+        return push(item, RecyclerView.NO_ID);
+    }
+
+    /**
+     * 入栈，position必须大于栈顶的position
+     * 由于栈内有序，重复检查只需要和栈顶比较，O(1)
+     *
+     * @return 返回null说明没有添加成功
+     */
+    public RecyclerView.ViewHolder push(RecyclerView.ViewHolder item, long id) {
+        if (item == null) {
+            return null;
+        }
+        int position = item.getLayoutPosition();
+        //避免存在重复的Value
+        if (size > 0 && !isAfter(position, positions[size - 1])) {
+            return null;
+        }
+        if (size == holders.length) {
+            holders = Arrays.copyOf(holders, size << 1);
+            positions = Arrays.copyOf(positions, size << 1);
+            ids = Arrays.copyOf(ids, size << 1);
+        }
+        holders[size] = item;
+        positions[size] = position;
+        ids[size] = id;
+        size++;
+        return item;
+    }
+
+    public RecyclerView.ViewHolder pushBottom(RecyclerView.ViewHolder item) {
+        return pushBottom(item, RecyclerView.NO_ID);
+    }
+
+    /**
+     * 栈底插入，用于回滚时重建被淘汰的Section，position必须小于栈底的position
+     *
+     * @return 返回null说明没有添加成功
+     */
+    public RecyclerView.ViewHolder pushBottom(RecyclerView.ViewHolder item, long id) {
+        if (item == null) {
+            return null;
+        }
+        int position = item.getLayoutPosition();
+        if (size > 0 && !isAfter(positions[0], position)) {
+            return null;
+        }
+        if (size == holders.length) {
+            holders = Arrays.copyOf(holders, size << 1);
+            positions = Arrays.copyOf(positions, size << 1);
+            ids = Arrays.copyOf(ids, size << 1);
+        }
+        System.arraycopy(holders, 0, holders, 1, size);
+        System.arraycopy(positions, 0, positions, 1, size);
+        System.arraycopy(ids, 0, ids, 1, size);
+        holders[0] = item;
+        positions[0] = position;
+        ids[0] = id;
+        size++;
+        return item;
+    }
+
+    public RecyclerView.ViewHolder peek() {
+        if (size == 0) {
+            return null;
+        }
+        return holders[size - 1];
+    }
+
+    /**
+     * @return 栈顶的position，栈为空时返回 {@link RecyclerView#NO_POSITION}
+     */
+    public int peekPosition() {
+        if (size == 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        return positions[size - 1];
+    }
+
+    /**
+     * @return 栈底的position，栈为空时返回 {@link RecyclerView#NO_POSITION}
+     */
+    public int peekBottomPosition() {
+        if (size == 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        return positions[0];
+    }
+
+    /**
+     * adapter插入/删除item后同步记录的position，>= positionStart 的平移delta
+     */
+    public void offsetPositions(int positionStart, int delta) {
+        if (descending) {
+            for (int i = 0; i < size && positions[i] >= positionStart; i++) {
+                positions[i] += delta;
+            }
+            return;
+        }
+        for (int i = size - 1; i >= 0 && positions[i] >= positionStart; i--) {
+            positions[i] += delta;
+        }
+    }
+
+    /**
+     * @return [positionStart, positionStart + itemCount) 内是否有缓存的Section
+     */
+    public boolean hasPositionInRange(int positionStart, int itemCount) {
+        for (int i = 0; i < size; i++) {
+            if (positions[i] >= positionStart && positions[i] < positionStart + itemCount) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 淘汰一个超出maxSize的栈底ViewHolder
+     * 调用方需要把返回的ViewHolder交还给RecyclerView的缓存池
+     *
+     * @return 没有需要淘汰的时候返回null
+     */
+    public RecyclerView.ViewHolder evict() {
+        if (size <= maxSize) {
+            return null;
+        }
+        RecyclerView.ViewHolder bottom = holders[0];
+        System.arraycopy(holders, 1, holders, 0, size - 1);
+        System.arraycopy(positions, 1, positions, 0, size - 1);
+        System.arraycopy(ids, 1, ids, 0, size - 1);
+        holders[--size] = null;
+        return bottom;
+    }
+
+    /**
+     * 栈顶清理
+     * 根据LayoutPosition清理，栈内有序，只需要从栈顶截断，O(被移除的个数)，不分配对象
+     * 被移除的ViewHolder通过 {@link #getRemoved(int)} 获取，直到下一次clearTop或 {@link #releaseRemoved()}
+     *
+     * @param layoutPosition 大于position的内容会被清理，{@link RecyclerView#NO_POSITION} 清理全部
+     * @return 被移除的个数
+     */
+    public int clearTop(int layoutPosition) {
+        releaseRemoved();
+        while (size > 0 && (layoutPosition == RecyclerView.NO_POSITION || isAfter(positions[size - 1], layoutPosition))) {
+            if (removedCount == removed.length) {
+                removed = Arrays.copyOf(removed, removedCount << 1);
+            }
+            removed[removedCount++] = holders[size - 1];
+            holders[--size] = null;
+        }
+        return removedCount;
+    }
+
+    /**
+     * 栈底清理，小于layoutPosition的内容会被清理，与 {@link #clearTop(int)} 共用移除缓存
+     *
+     * @return 被移除的个数
+     */
+    public int clearBottom(int layoutPosition) {
+        releaseRemoved();
+        int count = 0;
+        while (count < size && isAfter(layoutPosition, positions[count])) {
+            count++;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        if (count > removed.length) {
+            removed = Arrays.copyOf(removed, count);
+        }
+        System.arraycopy(holders, 0, removed, 0, count);
+        removedCount = count;
+        System.arraycopy(holders, count, holders, 0, size - count);
+        System.arraycopy(positions, count, positions, 0, size - count);
+        System.arraycopy(ids, count, ids, 0, size - count);
+        for (int i = size - count; i < size; i++) {
+            holders[i] = null;
+        }
+        size -= count;
+        return removedCount;
+    }
+
+    /**
+     * @param index [0, clearTop/clearBottom的返回值)
+     */
+    public RecyclerView.ViewHolder getRemoved(int index) {
+        if (index < 0 || index >= removedCount) {
+            throw new IndexOutOfBoundsException("index=" + index + ", removedCount=" + removedCount);
+        }
+        return removed[index];
+    }
+
+    /**
+     * 释放clearTop/clearBottom移除的ViewHolder的引用
+     */
+    public void releaseRemoved() {
+        for (int i = 0; i < removedCount; i++) {
+            removed[i] = null;
+        }
+        removedCount = 0;
+    }
+}
@@ -0,0 +1,316 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * 网格版本的 {@link SectionLayoutManager}，吸顶逻辑相同
+ * Section自动占满一行，通过 {@link #setSpanSizeLookup(SpanSizeLookup)} 设置的lookup只决定其它item的span size，
+ * span index按Section分段缓存，见 {@link SectionSpanSizeLookup}
+ * 同一行的item高度不能累加，滚动条沿用GridLayoutManager的估算
+ *
+ * @author Rango on 2020/11/26
+ */
+public class SectionGridLayoutManager extends GridLayoutManager implements SectionLayout {
+    private final SectionHelper sectionHelper = new SectionHelper(this);
+    private final SectionSpanSizeLookup sectionSpanSizeLookup = new SectionSpanSizeLookup(this, sectionHelper);
+    private final Runnable relayout = this::requestLayout;
+
+    public SectionGridLayoutManager(Context context, int spanCount) {
+        super(context, spanCount);
+        super.setSpanSizeLookup(sectionSpanSizeLookup);
+    }
+
+    /**
+     * @param orientation {@link #HORIZONTAL} 时Section占满一列，吸附在左边
+     */
+    public SectionGridLayoutManager(Context context, int spanCount, int orientation, boolean reverseLayout) {
+        super(context, spanCount, orientation, reverseLayout);
+        super.setSpanSizeLookup(sectionSpanSizeLookup);
+    }
+
+    /**
+     * 在xml中通过 app:layoutManager 声明时使用
+     */
+    public SectionGridLayoutManager(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+        super.setSpanSizeLookup(sectionSpanSizeLookup);
+    }
+
+    /**
+     * @param spanSizeLookup 非Section的span size，Section固定占满一行；只使用它的getSpanSize
+     */
+    @Override
+    public void setSpanSizeLookup(SpanSizeLookup spanSizeLookup) {
+        if (spanSizeLookup == sectionSpanSizeLookup) {
+            return;
+        }
+        sectionSpanSizeLookup.setItemLookup(spanSizeLookup);
+        requestLayout();
+    }
+
+    @Override
+    public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        sectionHelper.onAttachedToWindow(view);
+    }
+
+    @Override
+    public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        super.onDetachedFromWindow(view, recycler);
+        sectionHelper.onDetachedFromWindow(recycler);
+    }
+
+    /**
+     * 没有SectionProvider也没有登记viewType时，Section要等ViewHolder被add才能识别，
+     * 之前按普通item计算的span已经用于这次布局，识别后再布局一次
+     */
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        sectionHelper.beforeLayout();
+        int version = sectionHelper.getSectionIndexVersion();
+        super.onLayoutChildren(recycler, state);
+        if (!state.isPreLayout() && version != sectionHelper.getSectionIndexVersion()) {
+            super.onLayoutChildren(recycler, state);
+        }
+        sectionHelper.afterLayout(recycler, state);
+    }
+
+    public int getMaxSectionCount() {
+        return sectionHelper.getMaxSectionCount();
+    }
+
+    /**
+     * @param maxSectionCount 同时吸顶的Section个数，按顺序从上往下堆叠
+     */
+    public void setMaxSectionCount(int maxSectionCount) {
+        sectionHelper.setMaxSectionCount(maxSectionCount);
+    }
+
+    public int getRenderMode() {
+        return sectionHelper.getRenderMode();
+    }
+
+    /**
+     * @param renderMode {@link SectionLayoutManager#RENDER_MODE_CHILD} 或 {@link SectionLayoutManager#RENDER_MODE_OVERLAY}
+     */
+    public void setRenderMode(int renderMode) {
+        sectionHelper.setRenderMode(renderMode);
+    }
+
+    public boolean isStickyFooters() {
+        return sectionHelper.isStickyFooters();
+    }
+
+    /**
+     * @see SectionLayoutManager#setStickyFooters(boolean)
+     */
+    public void setStickyFooters(boolean stickyFooters) {
+        sectionHelper.setStickyFooters(stickyFooters);
+    }
+
+    /**
+     * @see SectionLayoutManager#setSectionProvider(SectionProvider)
+     */
+    public void setSectionProvider(SectionProvider provider) {
+        sectionHelper.setSectionProvider(provider);
+    }
+
+    /**
+     * @see SectionLayoutManager#setSectionViewTypes(int...)
+     */
+    public void setSectionViewTypes(int... viewTypes) {
+        sectionHelper.setSectionViewTypes(viewTypes);
+    }
+
+    public long getSectionId(int position) {
+        return sectionHelper.getSectionId(position);
+    }
+
+    public SectionViewPool getSectionViewPool() {
+        return sectionHelper.getSectionViewPool();
+    }
+
+    /**
+     * @see SectionLayoutManager#setSectionViewPool(SectionViewPool)
+     */
+    public void setSectionViewPool(SectionViewPool pool) {
+        sectionHelper.setSectionViewPool(pool);
+    }
+
+    public void setOnScrollMetricsListener(SectionLayoutManager.OnScrollMetricsListener listener) {
+        sectionHelper.setOnScrollMetricsListener(listener);
+    }
+
+    public int getSectionCacheSize() {
+        return sectionHelper.getSectionCacheSize();
+    }
+
+    public int findSectionPosition(int position) {
+        return sectionHelper.findSectionPosition(position);
+    }
+
+    @Override
+    public void addView(View child, int index) {
+        super.addView(child, index);
+        sectionHelper.onAddView(child);
+    }
+
+    @Override
+    public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+        super.onAdapterChanged(oldAdapter, newAdapter);
+        sectionHelper.onAdapterChanged(newAdapter);
+        sectionSpanSizeLookup.clear();
+    }
+
+    @Override
+    public void onItemsChanged(@NonNull RecyclerView recyclerView) {
+        super.onItemsChanged(recyclerView);
+        sectionHelper.onItemsChanged();
+        sectionSpanSizeLookup.clear();
+    }
+
+    @Override
+    public void onItemsAdded(@NonNull RecyclerView recyclerView, int positionStart, int itemCount) {
+        super.onItemsAdded(recyclerView, positionStart, itemCount);
+        sectionHelper.onItemsAdded(positionStart, itemCount);
+        sectionSpanSizeLookup.onItemsAdded(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemsRemoved(@NonNull RecyclerView recyclerView, int positionStart, int itemCount) {
+        super.onItemsRemoved(recyclerView, positionStart, itemCount);
+        sectionHelper.onItemsRemoved(positionStart, itemCount);
+        sectionSpanSizeLookup.onItemsRemoved(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemsMoved(@NonNull RecyclerView recyclerView, int from, int to, int itemCount) {
+        super.onItemsMoved(recyclerView, from, to, itemCount);
+        sectionHelper.onItemsMoved(from, to, itemCount);
+        sectionSpanSizeLookup.clear();
+    }
+
+    @Override
+    public void onItemsUpdated(@NonNull RecyclerView recyclerView, int positionStart, int itemCount) {
+        super.onItemsUpdated(recyclerView, positionStart, itemCount);
+        sectionHelper.onItemsUpdated(positionStart, itemCount);
+        sectionSpanSizeLookup.onItemsUpdated(positionStart, itemCount);
+    }
+
+    @Override
+    public void setOrientation(int orientation) {
+        boolean changed = orientation != getOrientation();
+        super.setOrientation(orientation);
+        //父类构造函数中调用时sectionHelper还没有初始化
+        if (changed && sectionHelper != null) {
+            sectionHelper.onOrientationChanged();
+        }
+    }
+
+    /**
+     * 查找和滚动条不统计attach的吸顶Section，同 {@link SectionLayoutManager}
+     */
+    @Override
+    public int findFirstVisibleItemPosition() {
+        return sectionHelper.findVisibleItemPosition(false, false);
+    }
+
+    @Override
+    public int findFirstCompletelyVisibleItemPosition() {
+        return sectionHelper.findVisibleItemPosition(false, true);
+    }
+
+    @Override
+    public int findLastVisibleItemPosition() {
+        return sectionHelper.findVisibleItemPosition(true, false);
+    }
+
+    @Override
+    public int findLastCompletelyVisibleItemPosition() {
+        return sectionHelper.findVisibleItemPosition(true, true);
+    }
+
+    @Override
+    public int computeVerticalScrollOffset(RecyclerView.State state) {
+        return sectionHelper.computeScrollOffset(state);
+    }
+
+    @Override
+    public int computeVerticalScrollRange(RecyclerView.State state) {
+        return sectionHelper.computeScrollRange(state);
+    }
+
+    @Override
+    public int computeVerticalScrollExtent(RecyclerView.State state) {
+        return sectionHelper.computeScrollExtent(state);
+    }
+
+    @Override
+    public int computeHorizontalScrollOffset(RecyclerView.State state) {
+        return sectionHelper.computeScrollOffset(state);
+    }
+
+    @Override
+    public int computeHorizontalScrollRange(RecyclerView.State state) {
+        return sectionHelper.computeScrollRange(state);
+    }
+
+    @Override
+    public int computeHorizontalScrollExtent(RecyclerView.State state) {
+        return sectionHelper.computeScrollExtent(state);
+    }
+
+    @Override
+    public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        long start = sectionHelper.beginScroll();
+        try {
+            sectionHelper.beforeLayout();
+            int version = sectionHelper.getSectionIndexVersion();
+            int result = super.scrollVerticallyBy(dy, recycler, state);
+            sectionHelper.afterLayout(recycler, state);
+            relayoutIfIndexChanged(version);
+            return result;
+        } finally {
+            sectionHelper.endScroll(start);
+        }
+    }
+
+    @Override
+    public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        long start = sectionHelper.beginScroll();
+        try {
+            sectionHelper.beforeLayout();
+            int version = sectionHelper.getSectionIndexVersion();
+            int result = super.scrollHorizontallyBy(dx, recycler, state);
+            sectionHelper.afterLayout(recycler, state);
+            relayoutIfIndexChanged(version);
+            return result;
+        } finally {
+            sectionHelper.endScroll(start);
+        }
+    }
+
+    /**
+     * 滚动中识别出新的Section时，已经露出的行按旧的span排列，下一帧重新布局
+     */
+    private void relayoutIfIndexChanged(int version) {
+        if (version != sectionHelper.getSectionIndexVersion()) {
+            postOnAnimation(relayout);
+        }
+    }
+
+    @Override
+    public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                                 LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        if (!sectionHelper.collectAdjacentPrefetchPositions(dx, dy, state, layoutPrefetchRegistry)) {
+            super.collectAdjacentPrefetchPositions(dx, dy, state, layoutPrefetchRegistry);
+        }
+        sectionHelper.collectSectionPrefetchPositions(dx, dy, state, layoutPrefetchRegistry);
+    }
+}
@@ -0,0 +1,1456 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.util.SparseBooleanArray;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.smzdm.core.sectionlayoutmanager.holders.Section;
+import com.smzdm.core.sectionlayoutmanager.library.BuildConfig;
+
+/**
+ * 吸顶Section的索引、缓存和布局，由 {@link SectionLayoutManager}、{@link SectionGridLayoutManager}
+ * 和 {@link SectionStaggeredGridLayoutManager} 共用
+ * LayoutManager在对应的回调中转发，父类的实现由LayoutManager自己调用
+ *
+ * @author Rango on 2020/11/26
+ */
+final class SectionHelper {
+    /**
+     * 按当前速度，提前多少帧预取下一个Section
+     */
+    private static final int SECTION_PREFETCH_FRAMES = 4;
+
+    private final RecyclerView.LayoutManager lm;
+    private final SectionLayout layout;
+
+    /**
+     * 最多吸顶个数
+     */
+    private int maxSectionCount = 1;
+
+    /**
+     * 存储所有 section position
+     * 根据adapter的viewType一次性建立（见 {@link #ensureSectionIndex()}），没有布局过的item同样可以查询，
+     * scrollToPosition、快速滚动时不需要布局中间的item
+     * adapter的range通知（onItemsAdded/Removed/Moved）直接平移索引，notifyDataSetChanged之后重新建立
+     * child被add的时候再根据ViewHolder修正
+     */
+    private final SectionIndex sectionPositions = new SectionIndex();
+
+    /**
+     * sectionPositions需要重新建立
+     */
+    private boolean sectionIndexInvalid = true;
+
+    /**
+     * sectionPositions不经过adapter的range通知而变化时（重新建立、child被add时修正）加1，
+     * 网格的 {@link SectionSpanSizeLookup} 据此丢弃按旧索引缓存的span
+     */
+    private int sectionIndexVersion;
+
+    /**
+     * viewType -> 是否是Section，每个viewType只判断一次
+     */
+    private final SparseBooleanArray sectionViewTypes = new SparseBooleanArray();
+
+    /**
+     * 没有SectionProvider时登记的Section viewType，null表示根据布局过的ViewHolder是否实现了 {@link Section} 判断
+     */
+    private int[] registeredViewTypes;
+
+    /**
+     * 每个position的高度，测量过的使用实际高度，没有测量过的按viewType估计
+     * 用于精确计算滚动条和 {@link #scrollToVerticalOffset(int)}，维护方式同sectionPositions
+     */
+    private final HeightIndex heights = new HeightIndex();
+
+    /**
+     * heights需要重新建立
+     */
+    private boolean heightIndexInvalid = true;
+
+    /**
+     * position < firstVisibleItemPosition的SectionViewHolder
+     * 存储已经吸顶的Section，最多缓存maxSectionCount个，更早的Section在回滚的时候通过sectionPositions重建
+     */
+    private SectionCache sectionCache = new SectionCache(maxSectionCount);
+
+    /**
+     * layoutSections中以anchor结尾的Section，复用避免每帧分配
+     */
+    private int[] anchorChain = new int[maxSectionCount];
+
+    /**
+     * 吸附在底部的footer，最多一个，维护方式与sectionCache相同
+     * footer是分组的最后一个item（下一个Section之前），位置直接由sectionPositions得到，不需要单独的索引
+     */
+    private final SectionCache footerCache = new SectionCache(1);
+
+    private boolean stickyFooters;
+
+    /**
+     * footerCache中的ViewHolder内容或position已经失效，下次布局时重新获取
+     */
+    private boolean footerInvalid;
+
+    /**
+     * footer被上方的内容向下推的偏移量，>= 0
+     */
+    private int footerOffset;
+
+    private int renderMode = SectionLayoutManager.RENDER_MODE_CHILD;
+
+    /**
+     * 没有设置OnScrollMetricsListener的时候为null，统计代码不执行
+     */
+    private ScrollMetrics metrics;
+    private SectionLayoutManager.OnScrollMetricsListener metricsListener;
+
+    /**
+     * adapter数据变化后吸顶的ViewHolder内容或position已经失效，下次布局时重建
+     */
+    private boolean sectionsInvalid;
+
+    /**
+     * notifyDataSetChanged之后，下次建立索引时根据sectionId找到吸顶Section的新position
+     */
+    private boolean sectionsRemap;
+
+    /**
+     * 吸顶的ViewHolder position已经更新，需要重新绑定
+     */
+    private boolean sectionsRebind;
+
+    /**
+     * 为null时使用实现了SectionProvider的adapter
+     */
+    private SectionProvider sectionProvider;
+
+    /**
+     * 当前绑定的RecyclerView，onAttachedToWindow或者第一次addView时得到
+     */
+    private RecyclerView recyclerView;
+
+    /**
+     * onAdapterChanged时记录，RecyclerView还没有attach到window时用来建立索引
+     */
+    private RecyclerView.Adapter<?> adapter;
+
+    private SectionViewPool sectionViewPool;
+
+    <L extends RecyclerView.LayoutManager & SectionLayout> SectionHelper(L lm) {
+        this.lm = lm;
+        this.layout = lm;
+    }
+
+    /**
+     * 每个position独占一行
+     */
+    private boolean isLinear() {
+        return lm instanceof LinearLayoutManager
+                && (!(lm instanceof GridLayoutManager) || ((GridLayoutManager) lm).getSpanCount() == 1);
+    }
+
+    /**
+     * 横向列表的Section吸附在左边，从左往右堆叠、向左推出
+     * 吸顶相关的"顶部"和"高度"对横向列表分别是左边和宽度，见下面几个方法
+     */
+    private boolean isHorizontal() {
+        return layout.getOrientation() == RecyclerView.HORIZONTAL;
+    }
+
+    /**
+     * reverseLayout时position从下往上增长，Section是它所在分组中position最大的item（如按天分组的聊天列表，
+     * 新消息插入position 0），吸顶区域按position降序堆叠，见 {@link SectionMath}
+     * stackFromEnd只影响初始位置，不需要处理
+     */
+    private boolean isReversed() {
+        return lm instanceof LinearLayoutManager && ((LinearLayoutManager) lm).getReverseLayout();
+    }
+
+    /**
+     * 吸顶区域中a是否排在b之后，b不存在时为true
+     */
+    private static boolean isAfter(int a, int b, boolean reversed) {
+        return b == RecyclerView.NO_POSITION || (reversed ? a < b : a > b);
+    }
+
+    private int start(View view) {
+        return isHorizontal() ? view.getLeft() : view.getTop();
+    }
+
+    private int measuredSize(View view) {
+        return isHorizontal() ? view.getMeasuredWidth() : view.getMeasuredHeight();
+    }
+
+    private int decoratedStart(View child) {
+        return isHorizontal() ? lm.getDecoratedLeft(child) : lm.getDecoratedTop(child);
+    }
+
+    private int decoratedEnd(View child) {
+        return isHorizontal() ? lm.getDecoratedRight(child) : lm.getDecoratedBottom(child);
+    }
+
+    private int startAfterPadding() {
+        return isHorizontal() ? lm.getPaddingLeft() : lm.getPaddingTop();
+    }
+
+    private int endAfterPadding() {
+        return isHorizontal() ? lm.getWidth() - lm.getPaddingRight() : lm.getHeight() - lm.getPaddingBottom();
+    }
+
+    void onAttachedToWindow(RecyclerView view) {
+        recyclerView = view;
+        adapter = view.getAdapter();
+        installSectionViewPool();
+        if (renderMode == SectionLayoutManager.RENDER_MODE_OVERLAY) {
+            lm.requestLayout();
+        }
+    }
+
+    /**
+     * RENDER_MODE_OVERLAY时ViewGroupOverlay中的Section不会随列表的child一起回收，
+     * 更换LayoutManager之后会继续绘制，detach时交还给Recycler，attach后重新获取
+     */
+    void onDetachedFromWindow(RecyclerView.Recycler recycler) {
+        if (renderMode == SectionLayoutManager.RENDER_MODE_OVERLAY) {
+            recycleRemoved(sectionCache, sectionCache.clearTop(RecyclerView.NO_POSITION), recycler);
+            recycleRemoved(footerCache, footerCache.clearTop(RecyclerView.NO_POSITION), recycler);
+        }
+        recyclerView = null;
+    }
+
+    /**
+     * 拒绝进入系统的回收复用策略：布局/滚动之前把吸顶的Section detach，避免被当作普通child处理
+     */
+    void beforeLayout() {
+        detachSections();
+    }
+
+    /**
+     * 布局/滚动之后同步吸顶的Section，并记录可见item的高度
+     */
+    void afterLayout(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (state.isPreLayout()) {
+            attachSections(footerCache);
+            attachSections(sectionCache);
+        } else {
+            layoutSections(recycler);
+            recordHeights(state);
+        }
+    }
+
+    /**
+     * @return 开始时间，传给 {@link #endScroll(long)}
+     */
+    long beginScroll() {
+        if (BuildConfig.SECTION_TRACE) {
+            SectionTrace.begin(SectionTrace.SCROLL);
+        }
+        if (metrics == null) {
+            return 0;
+        }
+        metrics.reset();
+        return System.nanoTime();
+    }
+
+    void endScroll(long start) {
+        if (BuildConfig.SECTION_TRACE) {
+            SectionTrace.end();
+        }
+        ScrollMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.scrollNanos = System.nanoTime() - start;
+            metrics.cacheSize = sectionCache.size();
+            metricsListener.onScrollMetrics(metrics);
+        }
+    }
+
+    int getMaxSectionCount() {
+        return maxSectionCount;
+    }
+
+    void setMaxSectionCount(int maxSectionCount) {
+        sectionCache.setMaxSize(maxSectionCount);
+        this.maxSectionCount = maxSectionCount;
+        anchorChain = new int[maxSectionCount];
+        registerSectionViewTypes();
+        lm.requestLayout();
+    }
+
+    boolean isStickyFooters() {
+        return stickyFooters;
+    }
+
+    void setStickyFooters(boolean stickyFooters) {
+        if (this.stickyFooters == stickyFooters) {
+            return;
+        }
+        this.stickyFooters = stickyFooters;
+        footerInvalid = true;
+        lm.requestLayout();
+    }
+
+    int getRenderMode() {
+        return renderMode;
+    }
+
+    void setRenderMode(int renderMode) {
+        if (renderMode != SectionLayoutManager.RENDER_MODE_CHILD && renderMode != SectionLayoutManager.RENDER_MODE_OVERLAY) {
+            throw new IllegalArgumentException("invalid render mode:" + renderMode);
+        }
+        if (this.renderMode == renderMode) {
+            return;
+        }
+        this.renderMode = renderMode;
+        sectionsInvalid = true;
+        footerInvalid = true;
+        lm.requestLayout();
+    }
+
+    void setSectionProvider(SectionProvider provider) {
+        sectionProvider = provider;
+        sectionIndexInvalid = true;
+        sectionsInvalid = true;
+        footerInvalid = true;
+        lm.requestLayout();
+    }
+
+    void setSectionViewTypes(int[] viewTypes) {
+        registeredViewTypes = viewTypes == null || viewTypes.length == 0 ? null : viewTypes.clone();
+        sectionViewTypes.clear();
+        putRegisteredViewTypes();
+        sectionIndexInvalid = true;
+        sectionsInvalid = true;
+        footerInvalid = true;
+        lm.requestLayout();
+    }
+
+    private void putRegisteredViewTypes() {
+        if (registeredViewTypes != null) {
+            for (int viewType : registeredViewTypes) {
+                putSectionViewType(viewType, true);
+            }
+        }
+    }
+
+    private SectionProvider sectionProvider() {
+        if (sectionProvider != null) {
+            return sectionProvider;
+        }
+        RecyclerView.Adapter<?> adapter = adapter();
+        return adapter instanceof SectionProvider ? (SectionProvider) adapter : null;
+    }
+
+    long getSectionId(int position) {
+        return sectionIdAt(findSectionPosition(position));
+    }
+
+    private long sectionIdAt(int sectionPosition) {
+        SectionProvider provider = sectionProvider();
+        if (provider == null || sectionPosition == SectionIndex.NO_POSITION) {
+            return RecyclerView.NO_ID;
+        }
+        return provider.getSectionId(sectionPosition);
+    }
+
+    SectionViewPool getSectionViewPool() {
+        return sectionViewPool;
+    }
+
+    void setSectionViewPool(SectionViewPool pool) {
+        sectionViewPool = pool;
+        installSectionViewPool();
+    }
+
+    private void installSectionViewPool() {
+        if (sectionViewPool == null || recyclerView == null) {
+            return;
+        }
+        if (recyclerView.getRecycledViewPool() != sectionViewPool) {
+            recyclerView.setRecycledViewPool(sectionViewPool);
+        }
+        registerSectionViewTypes();
+    }
+
+    private void registerSectionViewTypes() {
+        for (int i = 0; i < sectionViewTypes.size(); i++) {
+            if (sectionViewTypes.valueAt(i)) {
+                registerSectionViewType(sectionViewTypes.keyAt(i));
+            }
+        }
+    }
+
+    private void registerSectionViewType(int viewType) {
+        if (sectionViewPool == null || recyclerView == null || adapter() == null) {
+            return;
+        }
+        sectionViewPool.setSectionDepth(viewType, maxSectionCount);
+        sectionViewPool.prewarm(recyclerView, viewType);
+    }
+
+    void setOnScrollMetricsListener(SectionLayoutManager.OnScrollMetricsListener listener) {
+        metricsListener = listener;
+        metrics = listener == null ? null : new ScrollMetrics();
+    }
+
+    int getSectionCacheSize() {
+        return sectionCache.size();
+    }
+
+    /**
+     * LayoutManager在fill的时候通过addView添加child，在这里记录Section的position
+     * 有SectionProvider时索引完全由它维护，不需要获取ViewHolder
+     */
+    void onAddView(View child) {
+        if (recyclerView == null && child.getParent() instanceof RecyclerView) {
+            //还没有attach到window（例如直接measure/layout），从第一个child得到RecyclerView
+            recyclerView = (RecyclerView) child.getParent();
+            installSectionViewPool();
+        }
+        if (sectionProvider() != null) {
+            return;
+        }
+        RecyclerView.ViewHolder vh = getViewHolderByView(child);
+        if (vh == null) {
+            return;
+        }
+        int position = vh.getLayoutPosition();
+        int viewType = vh.getItemViewType();
+        boolean isSection;
+        if (registeredViewTypes != null) {
+            isSection = isSectionViewType(viewType);
+        } else {
+            isSection = vh instanceof Section;
+            boolean known = sectionViewTypes.indexOfKey(viewType) >= 0;
+            putSectionViewType(viewType, isSection);
+            //之前建立索引时还不认识这个viewType，同类型的其它Section需要重新查找
+            if (!known && isSection) {
+                sectionIndexInvalid = true;
+            }
+        }
+        if (isSection ? sectionPositions.add(position) : sectionPositions.remove(position)) {
+            sectionIndexVersion++;
+        }
+    }
+
+    void onAdapterChanged(RecyclerView.Adapter<?> newAdapter) {
+        adapter = newAdapter;
+        sectionViewTypes.clear();
+        putRegisteredViewTypes();
+        heights.clear();
+        heightIndexInvalid = true;
+        sectionIndexInvalid = true;
+        sectionsInvalid = true;
+        footerInvalid = true;
+    }
+
+    /**
+     * 已经吸顶的Section按原来的方向测量和平移过，全部重新获取
+     */
+    void onOrientationChanged() {
+        heightIndexInvalid = true;
+        sectionsInvalid = true;
+        footerInvalid = true;
+    }
+
+    void onItemsChanged() {
+        sectionIndexInvalid = true;
+        heightIndexInvalid = true;
+        footerInvalid = true;
+        if (sectionProvider() != null) {
+            sectionsRemap = true;
+        } else {
+            sectionsInvalid = true;
+        }
+    }
+
+    /**
+     * 新插入的item根据viewType加入索引，O(k log n)
+     */
+    void onItemsAdded(int positionStart, int itemCount) {
+        sectionPositions.insertRange(positionStart, itemCount);
+        sectionCache.offsetPositions(positionStart, itemCount);
+        footerCache.offsetPositions(positionStart, itemCount);
+        updateSectionIndex(positionStart, itemCount);
+        if (!heightIndexInvalid && positionStart <= heights.size()) {
+            heights.insert(positionStart, viewTypes(positionStart, itemCount), itemCount);
+        } else {
+            heightIndexInvalid = true;
+        }
+    }
+
+    void onItemsRemoved(int positionStart, int itemCount) {
+        sectionPositions.removeRange(positionStart, itemCount);
+        if (!heightIndexInvalid && positionStart + itemCount <= heights.size()) {
+            heights.remove(positionStart, itemCount);
+        } else {
+            heightIndexInvalid = true;
+        }
+        if (sectionCache.hasPositionInRange(positionStart, itemCount)) {
+            sectionsInvalid = true;
+        } else {
+            sectionCache.offsetPositions(positionStart + itemCount, -itemCount);
+        }
+        if (footerCache.hasPositionInRange(positionStart, itemCount)) {
+            footerInvalid = true;
+        } else {
+            footerCache.offsetPositions(positionStart + itemCount, -itemCount);
+        }
+    }
+
+    void onItemsMoved(int from, int to, int itemCount) {
+        sectionPositions.move(from, to, itemCount);
+        if (!heightIndexInvalid && Math.max(from, to) + itemCount <= heights.size()) {
+            heights.move(from, to, itemCount);
+        } else {
+            heightIndexInvalid = true;
+        }
+        sectionsInvalid = true;
+        footerInvalid = true;
+    }
+
+    /**
+     * 位置没有变化，不需要平移索引，只根据viewType修正；吸顶的Section内容变化时重新绑定
+     */
+    void onItemsUpdated(int positionStart, int itemCount) {
+        boolean changed = updateSectionIndex(positionStart, itemCount);
+        if (!heightIndexInvalid && positionStart + itemCount <= heights.size()) {
+            heights.update(positionStart, viewTypes(positionStart, itemCount), itemCount);
+        } else {
+            heightIndexInvalid = true;
+        }
+        if (sectionCache.hasPositionInRange(positionStart, itemCount)) {
+            sectionsInvalid = true;
+        }
+        //吸顶区域之上的item变成Section或者不再是Section，栈中的Section可能不再是以anchor结尾的那一串
+        sectionsInvalid |= changed && isAboveFirstVisible(positionStart, itemCount);
+        footerInvalid |= footerCache.hasPositionInRange(positionStart, itemCount);
+    }
+
+    /**
+     * @return [positionStart, positionStart + itemCount) 中是否有item在最上面的可见item或之前（reverseLayout时为之后）
+     */
+    private boolean isAboveFirstVisible(int positionStart, int itemCount) {
+        boolean reversed = isReversed();
+        int first = reversed ? ((LinearLayoutManager) lm).findLastVisibleItemPosition()
+                : layout.findFirstVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) {
+            return false;
+        }
+        return reversed ? positionStart + itemCount - 1 >= first : positionStart <= first;
+    }
+
+    /**
+     * 建立完整的sectionPositions，O(n)，只在adapter变化或notifyDataSetChanged之后执行一次
+     * 有SectionProvider时直接使用它，同时登记header的viewType，并按sectionId找到吸顶Section的新position；
+     * 否则根据adapter的viewType判断
+     */
+    private void ensureSectionIndex() {
+        RecyclerView.Adapter<?> adapter = adapter();
+        if (!sectionIndexInvalid || adapter == null) {
+            return;
+        }
+        sectionIndexInvalid = false;
+        sectionIndexVersion++;
+        sectionPositions.clear();
+        SectionProvider provider = sectionProvider();
+        if (provider == null) {
+            for (int position = 0, count = adapter.getItemCount(); position < count; position++) {
+                if (isSectionViewType(adapter.getItemViewType(position))) {
+                    sectionPositions.add(position);
+                }
+            }
+            return;
+        }
+        //栈内按position有序，刷新后仍然存在的Section顺序不变，按顺序依次匹配即可
+        int[] remapped = sectionsRemap ? new int[sectionCache.size()] : null;
+        boolean descending = sectionCache.isDescending();
+        int matched = 0;
+        for (int position = 0, count = adapter.getItemCount(); position < count; position++) {
+            if (!provider.isSectionHeader(position)) {
+                continue;
+            }
+            sectionPositions.add(position);
+            int viewType = adapter.getItemViewType(position);
+            if (sectionViewTypes.indexOfKey(viewType) < 0) {
+                putSectionViewType(viewType, true);
+            }
+            if (remapped != null && matched < remapped.length) {
+                //viewType变化时原来的ViewHolder不能重新绑定
+                int slot = descending ? remapped.length - 1 - matched : matched;
+                long id = provider.getSectionId(position);
+                if (id != RecyclerView.NO_ID && id == sectionCache.idAt(slot)
+                        && viewType == sectionCache.get(slot).getItemViewType()) {
+                    remapped[slot] = position;
+                    matched++;
+                }
+            }
+        }
+        if (remapped != null) {
+            sectionsRemap = false;
+            if (matched == remapped.length) {
+                for (int i = 0; i < matched; i++) {
+                    sectionCache.setPositionAt(i, remapped[i]);
+                }
+                sectionsRebind = matched > 0;
+            } else {
+                sectionsInvalid = true;
+            }
+        }
+    }
+
+    private boolean isSectionAt(SectionProvider provider, RecyclerView.Adapter<?> adapter, int position) {
+        if (provider != null) {
+            return provider.isSectionHeader(position);
+        }
+        return isSectionViewType(adapter.getItemViewType(position));
+    }
+
+    /**
+     * @return 是否有item变成Section或者不再是Section
+     */
+    private boolean updateSectionIndex(int positionStart, int itemCount) {
+        RecyclerView.Adapter<?> adapter = adapter();
+        if (sectionIndexInvalid || adapter == null) {
+            return false;
+        }
+        SectionProvider provider = sectionProvider();
+        int end = Math.min(positionStart + itemCount, adapter.getItemCount());
+        boolean changed = false;
+        for (int position = positionStart; position < end; position++) {
+            if (isSectionAt(provider, adapter, position)) {
+                changed |= sectionPositions.add(position);
+            } else {
+                changed |= sectionPositions.remove(position);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 只根据登记过或者布局过的viewType判断，不为了判断创建ViewHolder；
+     * 没有登记时，第一次布局某个Section的viewType之后重新建立索引（见 {@link #onAddView(View)}）
+     */
+    private boolean isSectionViewType(int viewType) {
+        int index = sectionViewTypes.indexOfKey(viewType);
+        return index >= 0 && sectionViewTypes.valueAt(index);
+    }
+
+    private void putSectionViewType(int viewType, boolean isSection) {
+        boolean known = sectionViewTypes.indexOfKey(viewType) >= 0;
+        sectionViewTypes.put(viewType, isSection);
+        if (!known && isSection) {
+            registerSectionViewType(viewType);
+        }
+    }
+
+    /**
+     * 建立完整的heights，O(n)，只在adapter变化或notifyDataSetChanged之后执行一次
+     * 已经知道的viewType估计高度保留，刷新后滚动条不会跳动
+     */
+    private void ensureHeightIndex() {
+        RecyclerView.Adapter<?> adapter = adapter();
+        if (!heightIndexInvalid || adapter == null) {
+            return;
+        }
+        heightIndexInvalid = false;
+        int count = adapter.getItemCount();
+        heights.reset(viewTypes(0, count), count);
+    }
+
+    /**
+     * adapter的range通知中新的viewType，heights需要重新建立时不读取
+     */
+    private int[] viewTypes(int positionStart, int itemCount) {
+        int[] types = new int[itemCount];
+        RecyclerView.Adapter<?> adapter = adapter();
+        if (heightIndexInvalid || adapter == null) {
+            heightIndexInvalid = true;
+            return types;
+        }
+        int end = Math.min(positionStart + itemCount, adapter.getItemCount());
+        for (int position = positionStart; position < end; position++) {
+            types[position - positionStart] = adapter.getItemViewType(position);
+        }
+        return types;
+    }
+
+    /**
+     * 布局或滚动结束后记录列表中可见item的高度（包括decoration和margin），O(k log n)
+     */
+    private void recordHeights(RecyclerView.State state) {
+        //reverseLayout不使用heights，也不在position 0插入时重建
+        if (!isLinear() || layout.getOrientation() != RecyclerView.VERTICAL || isReversed()) {
+            return;
+        }
+        ensureHeightIndex();
+        if (heightIndexInvalid || heights.size() != state.getItemCount()) {
+            heightIndexInvalid = true;
+            return;
+        }
+        int listChildCount = lm.getChildCount() - attachedSectionCount();
+        for (int i = 0; i < listChildCount; i++) {
+            View child = lm.getChildAt(i);
+            int position = lm.getPosition(child);
+            if (position >= 0 && position < heights.size()) {
+                heights.measure(position, decoratedHeightWithMargins(child));
+            }
+        }
+    }
+
+    private int decoratedHeightWithMargins(View child) {
+        RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+        return lm.getDecoratedMeasuredHeight(child) + lp.topMargin + lp.bottomMargin;
+    }
+
+    /**
+     * 是否可以用heights代替LinearLayoutManager根据可见item平均高度的估算，网格中同一行的item高度不能累加
+     */
+    boolean canUseHeightIndex(RecyclerView.State state) {
+        return isLinear() && layout.getOrientation() == RecyclerView.VERTICAL
+                && !((LinearLayoutManager) lm).getReverseLayout() && ((LinearLayoutManager) lm).isSmoothScrollbarEnabled()
+                && !heightIndexInvalid && heights.size() == state.getItemCount()
+                && lm.getChildCount() - attachedSectionCount() > 0;
+    }
+
+    /**
+     * 内容顶部到可见区域顶部的距离，第一个可见item之前的部分按heights累加，O(log n)
+     * 只在 {@link #canUseHeightIndex(RecyclerView.State)} 时使用，下同
+     */
+    int computeVerticalScrollOffset() {
+        View first = lm.getChildAt(0);
+        RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) first.getLayoutParams();
+        long offset = lm.getPaddingTop() + heights.offsetOf(lm.getPosition(first))
+                - (lm.getDecoratedTop(first) - lp.topMargin);
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, offset));
+    }
+
+    int computeVerticalScrollRange() {
+        long range = lm.getPaddingTop() + heights.totalHeight() + lm.getPaddingBottom();
+        return (int) Math.min(Integer.MAX_VALUE, range);
+    }
+
+    int computeVerticalScrollExtent() {
+        return lm.getHeight();
+    }
+
+    /**
+     * 同LinearLayoutManager的findFirst/Last(Completely)VisibleItemPosition，只查找列表自己的child：
+     * RENDER_MODE_CHILD时吸顶的Section和footer attach在最后，不能算作可见的item
+     *
+     * @param fromEnd 从最后一个child开始查找
+     */
+    int findVisibleItemPosition(boolean fromEnd, boolean completelyVisible) {
+        View child = findVisibleChild(fromEnd, completelyVisible);
+        return child == null ? RecyclerView.NO_POSITION : lm.getPosition(child);
+    }
+
+    private View findVisibleChild(boolean fromEnd, boolean completelyVisible) {
+        int listChildCount = lm.getChildCount() - attachedSectionCount();
+        for (int i = 0; i < listChildCount; i++) {
+            View child = lm.getChildAt(fromEnd ? listChildCount - 1 - i : i);
+            if (isVisible(child, completelyVisible)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private boolean isVisible(View child, boolean completelyVisible) {
+        int start = decoratedStart(child);
+        int end = decoratedEnd(child);
+        return completelyVisible ? start >= startAfterPadding() && end <= endAfterPadding()
+                : start < endAfterPadding() && end > startAfterPadding();
+    }
+
+    /**
+     * 不能使用heights时的滚动条，同LinearLayoutManager按可见item的平均大小估算，只统计列表自己的child
+     */
+    int computeScrollOffset(RecyclerView.State state) {
+        View topChild = scrollbarChild(true);
+        View bottomChild = scrollbarChild(false);
+        if (state.getItemCount() == 0 || topChild == null || bottomChild == null) {
+            return 0;
+        }
+        int topPosition = lm.getPosition(topChild);
+        int bottomPosition = lm.getPosition(bottomChild);
+        //reverseLayout时position大的在上面
+        int itemsBefore = isReversed()
+                ? Math.max(0, state.getItemCount() - Math.max(topPosition, bottomPosition) - 1)
+                : Math.max(0, Math.min(topPosition, bottomPosition));
+        if (!isSmoothScrollbarEnabled()) {
+            return itemsBefore;
+        }
+        float sizePerItem = (float) (decoratedEnd(bottomChild) - decoratedStart(topChild))
+                / (Math.abs(topPosition - bottomPosition) + 1);
+        return Math.round(itemsBefore * sizePerItem + (startAfterPadding() - decoratedStart(topChild)));
+    }
+
+    int computeScrollExtent(RecyclerView.State state) {
+        View topChild = scrollbarChild(true);
+        View bottomChild = scrollbarChild(false);
+        if (state.getItemCount() == 0 || topChild == null || bottomChild == null) {
+            return 0;
+        }
+        if (!isSmoothScrollbarEnabled()) {
+            return Math.abs(lm.getPosition(topChild) - lm.getPosition(bottomChild)) + 1;
+        }
+        return Math.min(endAfterPadding() - startAfterPadding(), decoratedEnd(bottomChild) - decoratedStart(topChild));
+    }
+
+    int computeScrollRange(RecyclerView.State state) {
+        View topChild = scrollbarChild(true);
+        View bottomChild = scrollbarChild(false);
+        if (state.getItemCount() == 0 || topChild == null || bottomChild == null) {
+            return 0;
+        }
+        if (!isSmoothScrollbarEnabled()) {
+            return state.getItemCount();
+        }
+        int laidOutArea = decoratedEnd(bottomChild) - decoratedStart(topChild);
+        int laidOutRange = Math.abs(lm.getPosition(topChild) - lm.getPosition(bottomChild)) + 1;
+        return (int) ((float) laidOutArea / laidOutRange * state.getItemCount());
+    }
+
+    /**
+     * 列表自己的可见child中最上面/最下面（横向时最左/最右）的一个，smoothScrollbar关闭时只考虑完全可见的child
+     */
+    private View scrollbarChild(boolean top) {
+        int listChildCount = lm.getChildCount() - attachedSectionCount();
+        boolean completelyVisible = !isSmoothScrollbarEnabled();
+        View found = null;
+        for (int i = 0; i < listChildCount; i++) {
+            View child = lm.getChildAt(i);
+            if (isVisible(child, completelyVisible) && (found == null
+                    || (top ? decoratedStart(child) < decoratedStart(found) : decoratedEnd(child) > decoratedEnd(found)))) {
+                found = child;
+            }
+        }
+        return found;
+    }
+
+    private boolean isSmoothScrollbarEnabled() {
+        return !(lm instanceof LinearLayoutManager) || ((LinearLayoutManager) lm).isSmoothScrollbarEnabled();
+    }
+
+    void setEstimatedItemHeight(int viewType, int height) {
+        heights.setEstimate(viewType, height);
+    }
+
+    void scrollToVerticalOffset(int offset) {
+        if (!isLinear() || isHorizontal()) {
+            return;
+        }
+        ensureHeightIndex();
+        if (heightIndexInvalid || heights.size() == 0) {
+            return;
+        }
+        long contentOffset = (long) offset - lm.getPaddingTop();
+        int position = heights.positionAt(contentOffset);
+        ((LinearLayoutManager) lm).scrollToPositionWithOffset(position, (int) (heights.offsetOf(position) - contentOffset));
+    }
+
+    /**
+     * reverseLayout时Section在它所在分组的末尾，是 >= position 的第一个Section
+     */
+    int findSectionPosition(int position) {
+        return isReversed() ? sectionPositions.nextSection(position - 1) : sectionPositions.sectionForPosition(position);
+    }
+
+    /**
+     * <= position 的最后一个Section，网格按它分段计算span，与reverseLayout无关
+     */
+    int segmentStart(int position) {
+        return sectionPositions.sectionForPosition(position);
+    }
+
+    /**
+     * 网格的SpanSizeLookup在child布局之前调用，需要时先建立索引
+     */
+    boolean isSectionPosition(int position) {
+        ensureSectionIndex();
+        return sectionPositions.contains(position);
+    }
+
+    /**
+     * @return position所属Section在sectionPositions中的下标，在所有Section之前时返回 -1
+     */
+    int sectionIndexOf(int position) {
+        ensureSectionIndex();
+        return sectionPositions.indexOfSection(position);
+    }
+
+    /**
+     * @param index sectionPositions中的下标
+     */
+    int sectionAt(int index) {
+        return sectionPositions.get(index);
+    }
+
+    /**
+     * 需要时先建立索引，之后的变化只来自child被add时的修正
+     */
+    int getSectionIndexVersion() {
+        ensureSectionIndex();
+        return sectionIndexVersion;
+    }
+
+    /**
+     * @return > position 的第一个Section，不存在时返回 {@link RecyclerView#NO_POSITION}
+     */
+    int nextSectionPosition(int position) {
+        ensureSectionIndex();
+        return sectionPositions.nextSection(position);
+    }
+
+    /**
+     * 在RecyclerView的空闲时间提前创建并绑定即将用到的Section，GapWorker每帧以上一帧的滚动距离调用
+     * RENDER_MODE_CHILD时吸顶的Section作为child排在最后，默认实现会把它当作列表的最后一个item，这里只看列表自己的child；
+     * 网格中预取相邻的一行（横向时是一列）
+     *
+     * @return false 没有作为child的吸顶Section，交给默认实现
+     */
+    boolean collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                             RecyclerView.LayoutManager.LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        int listChildCount = lm.getChildCount() - attachedSectionCount();
+        if (listChildCount == lm.getChildCount()) {
+            return false;
+        }
+        int delta = isHorizontal() ? dx : dy;
+        if (delta == 0 || listChildCount <= 0) {
+            return true;
+        }
+        //child按position升序排列，reverseLayout时position大的在上面
+        boolean towardLast = delta > 0 != isReversed();
+        View child = lm.getChildAt(towardLast ? listChildCount - 1 : 0);
+        int direction = towardLast ? 1 : -1;
+        int distance = Math.max(0, delta > 0 ? decoratedEnd(child) - endAfterPadding()
+                : startAfterPadding() - decoratedStart(child));
+        boolean grid = lm instanceof GridLayoutManager;
+        int spanCount = grid ? ((GridLayoutManager) lm).getSpanCount() : 1;
+        GridLayoutManager.SpanSizeLookup lookup = grid ? ((GridLayoutManager) lm).getSpanSizeLookup() : null;
+        int spans = 0;
+        for (int position = lm.getPosition(child) + direction;
+             position >= 0 && position < state.getItemCount() && spans < spanCount; position += direction) {
+            spans += lookup == null ? 1 : lookup.getSpanSize(position);
+            if (spans > spanCount) {
+                break;
+            }
+            layoutPrefetchRegistry.addPosition(position, distance);
+        }
+        return true;
+    }
+
+    /**
+     * 根据速度（上一帧的滚动距离）和到下一个Section的距离预取，距离按可见item的平均高度估算
+     * 1. 向下滚动：相邻item之后的下一个Section，进入屏幕时直接从mCachedViews取出，不需要在这一帧创建和绑定
+     * 2. 向上滚动：列表中上方的Section；栈满时栈顶出栈后需要重建的栈底之前的Section
+     * 入栈时列表中的那一份已经在屏幕内，GapWorker不会预取已经attach的position，这种情况由缓存池复用出栈的ViewHolder
+     * reverseLayout时只预取相邻item
+     */
+    void collectSectionPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                         RecyclerView.LayoutManager.LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        int listChildCount = lm.getChildCount() - attachedSectionCount();
+        int delta = isHorizontal() ? dx : dy;
+        if (delta == 0 || isReversed() || listChildCount <= 0 || sectionIndexInvalid || sectionPositions.isEmpty()) {
+            return;
+        }
+        View firstChild = lm.getChildAt(0);
+        View lastChild = lm.getChildAt(listChildCount - 1);
+        int first = lm.getPosition(firstChild);
+        int last = lm.getPosition(lastChild);
+        int averageHeight = Math.max(1, (decoratedEnd(lastChild) - decoratedStart(firstChild))
+                / Math.max(1, last - first + 1));
+        int lookahead = Math.abs(delta) * SECTION_PREFETCH_FRAMES;
+        if (delta > 0) {
+            //last + 1 已经由相邻item的预取处理
+            int next = sectionPositions.nextSection(last + 1);
+            if (next != SectionIndex.NO_POSITION && next < state.getItemCount()) {
+                int distance = decoratedEnd(lastChild) - endAfterPadding() + (next - last - 1) * averageHeight;
+                if (distance <= lookahead) {
+                    layoutPrefetchRegistry.addPosition(next, Math.max(0, distance));
+                }
+            }
+            return;
+        }
+        int firstTop = decoratedStart(firstChild);
+        int previous = sectionPositions.sectionForPosition(first - 2);
+        if (previous != SectionIndex.NO_POSITION && !isAttachedSection(previous)) {
+            int distance = startAfterPadding() - firstTop + (first - 1 - previous) * averageHeight;
+            if (distance <= lookahead) {
+                layoutPrefetchRegistry.addPosition(previous, Math.max(0, distance));
+            }
+        }
+        if (sectionCache.size() < maxSectionCount) {
+            return;
+        }
+        int rebuild = sectionPositions.previousSection(sectionCache.peekBottomPosition());
+        if (rebuild == SectionIndex.NO_POSITION) {
+            return;
+        }
+        //栈顶在列表中的顶部到达它下方吸顶区域的底部时出栈
+        int top = sectionCache.peekPosition();
+        View topView = top >= first ? lm.findViewByPosition(top) : null;
+        int topInList = topView != null ? start(topView) : firstTop - (first - top) * averageHeight;
+        int distance = sectionsHeight(sectionCache.size() - 1) - topInList;
+        if (distance <= lookahead) {
+            layoutPrefetchRegistry.addPosition(rebuild, Math.max(0, distance));
+        }
+    }
+
+    /**
+     * @return 作为child attach在RecyclerView中的吸顶Section和footer个数，它们排在列表自己的child之后
+     */
+    int attachedSectionCount() {
+        int count = 0;
+        for (int i = 0; i < sectionCache.size(); i++) {
+            if (isChild(sectionCache.get(i).itemView)) {
+                count++;
+            }
+        }
+        if (!footerCache.isEmpty() && isChild(footerCache.get(0).itemView)) {
+            count++;
+        }
+        return count;
+    }
+
+    private boolean isAttachedSection(int position) {
+        for (int i = 0; i < sectionCache.size(); i++) {
+            if (sectionCache.positionAt(i) == position) {
+                return isChild(sectionCache.get(i).itemView);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * RENDER_MODE_OVERLAY时吸顶的Section在RecyclerView的ViewGroupOverlay中，parent不是RecyclerView
+     */
+    private static boolean isChild(View itemView) {
+        return itemView.getParent() instanceof RecyclerView;
+    }
+
+    void detachSections() {
+        detachSections(sectionCache);
+        detachSections(footerCache);
+    }
+
+    private void detachSections(SectionCache cache) {
+        for (int i = 0; i < cache.size(); i++) {
+            View itemView = cache.get(i).itemView;
+            if (isChild(itemView)) {
+                lm.detachView(itemView);
+                if (metrics != null) {
+                    metrics.viewsDetached++;
+                }
+            }
+        }
+    }
+
+    private void attachSections(SectionCache cache) {
+        if (renderMode == SectionLayoutManager.RENDER_MODE_OVERLAY) {
+            return;
+        }
+        for (int i = 0; i < cache.size(); i++) {
+            View itemView = cache.get(i).itemView;
+            if (itemView.getParent() == null) {
+                lm.attachView(itemView);
+                if (metrics != null) {
+                    metrics.viewsAttached++;
+                }
+            }
+        }
+    }
+
+    /**
+     * 同步吸顶的Section并布局，只遍历sectionPositions中相关的几个Section
+     * 1. 完全滚出屏幕的Section一定吸顶，取以它结尾的最多maxSectionCount个Section
+     * 2. 屏幕内的Section顶部进入吸顶区域后入栈，离开后出栈
+     * 3. 栈满的时候，下一个Section把整个吸顶区域向上推
+     */
+    private void layoutSections(RecyclerView.Recycler recycler) {
+        if (BuildConfig.SECTION_TRACE) {
+            SectionTrace.begin(SectionTrace.LAYOUT_SECTIONS);
+        }
+        try {
+            //吸顶的Section attach之前，LinearLayoutManager的查找只会遇到列表自己的child
+            layoutFooter(recycler);
+            layoutSectionsInternal(recycler);
+        } finally {
+            if (BuildConfig.SECTION_TRACE) {
+                SectionTrace.end();
+            }
+        }
+    }
+
+    /**
+     * 同步吸附在底部的footer：最下面的可见item所在分组的footer还没有完全进入屏幕时吸附在底部，
+     * 分组的Section进入底部区域时把它向下推，footer不会盖住自己的Section
+     * footer位置由sectionPositions得到，每次只查询一个position，不遍历child
+     */
+    private void layoutFooter(RecyclerView.Recycler recycler) {
+        if (footerInvalid) {
+            footerInvalid = false;
+            recycleRemoved(footerCache, footerCache.clearTop(RecyclerView.NO_POSITION), recycler);
+        }
+        int footer = stickyFooters ? findStickyFooter() : RecyclerView.NO_POSITION;
+        if (footer == RecyclerView.NO_POSITION) {
+            recycleRemoved(footerCache, footerCache.clearTop(RecyclerView.NO_POSITION), recycler);
+            return;
+        }
+        if (footerCache.peekPosition() != footer) {
+            recycleRemoved(footerCache, footerCache.clearTop(RecyclerView.NO_POSITION), recycler);
+            int section = sectionPositions.sectionForPosition(footer);
+            footerCache.push(obtainSection(footer, recycler), sectionIdAt(section));
+        }
+        View footerView = footerCache.get(0).itemView;
+        int size = measuredSize(footerView);
+        int section = sectionPositions.sectionForPosition(footer);
+        View sectionView = section == SectionIndex.NO_POSITION ? null : lm.findViewByPosition(section);
+        footerOffset = sectionView == null ? 0 : Math.max(0, decoratedEnd(sectionView) - (extent() - size));
+        attachSections(footerCache);
+        boolean horizontal = isHorizontal();
+        int w = footerView.getMeasuredWidth();
+        int h = footerView.getMeasuredHeight();
+        int left = horizontal ? extent() - w : 0;
+        int top = horizontal ? 0 : extent() - h;
+        if (footerView.getLeft() != left || footerView.getTop() != top || footerView.getWidth() != w
+                || footerView.getHeight() != h || footerView.isLayoutRequested()) {
+            footerView.layout(left, top, left + w, top + h);
+            if (metrics != null) {
+                metrics.relayouts++;
+            }
+        }
+        if (horizontal) {
+            footerView.setTranslationX(footerOffset);
+        } else {
+            footerView.setTranslationY(footerOffset);
+        }
+    }
+
+    /**
+     * @return 需要吸附在底部的footer，不存在时返回 {@link RecyclerView#NO_POSITION}
+     */
+    private int findStickyFooter() {
+        SectionProvider provider = sectionProvider();
+        if (provider == null || !(lm instanceof LinearLayoutManager) || isReversed()) {
+            return RecyclerView.NO_POSITION;
+        }
+        ensureSectionIndex();
+        int last = ((LinearLayoutManager) lm).findLastVisibleItemPosition();
+        if (last == RecyclerView.NO_POSITION) {
+            return RecyclerView.NO_POSITION;
+        }
+        int next = sectionPositions.nextSection(last);
+        int footer = (next == SectionIndex.NO_POSITION ? lm.getItemCount() : next) - 1;
+        if (sectionPositions.contains(footer) || !provider.isSectionFooter(footer)) {
+            return RecyclerView.NO_POSITION;
+        }
+        //列表中的footer完全进入屏幕后不再吸附
+        View listView = lm.findViewByPosition(footer);
+        if (listView != null && start(listView) + measuredSize(listView) <= extent()) {
+            return RecyclerView.NO_POSITION;
+        }
+        return footer;
+    }
+
+    private int extent() {
+        return isHorizontal() ? lm.getWidth() : lm.getHeight();
+    }
+
+    /**
+     * scrollToPosition、scrollToPositionWithOffset之后的onLayoutChildren和smoothScrollToPosition的每一帧都经过这里：
+     * 吸顶的Section只由最上面的可见item在sectionPositions中O(log n)确定，跳过的item不会被布局，
+     * 一次跨过多个Section时也只有最终缺少的Section从Recycler获取并绑定
+     */
+    private void layoutSectionsInternal(RecyclerView.Recycler recycler) {
+        ensureSectionIndex();
+        if (sectionsRemap) {
+            //没有经过ensureSectionIndex（如没有adapter），无法匹配
+            sectionsRemap = false;
+            sectionsInvalid = true;
+        }
+        if (sectionsInvalid) {
+            sectionsInvalid = false;
+            sectionsRebind = false;
+            recycleRemoved(sectionCache, sectionCache.clearTop(RecyclerView.NO_POSITION), recycler);
+        }
+        if (sectionsRebind) {
+            sectionsRebind = false;
+            rebindSections(recycler);
+        }
+        boolean reversed = isReversed();
+        if (sectionCache.isDescending() != reversed) {
+            recycleRemoved(sectionCache, sectionCache.clearTop(RecyclerView.NO_POSITION), recycler);
+            sectionCache.setDescending(reversed);
+        }
+        //最上面的可见item
+        int first = reversed ? ((LinearLayoutManager) lm).findLastVisibleItemPosition()
+                : layout.findFirstVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) {
+            recycleRemoved(sectionCache, sectionCache.clearTop(RecyclerView.NO_POSITION), recycler);
+            return;
+        }
+        int anchor = SectionMath.anchorSection(sectionPositions, first, reversed);
+
+        //栈顶：顶部已经离开吸顶区域的Section出栈，列表中的item会照常显示
+        int keep = sectionCache.size() - 1;
+        while (keep >= 0 && isAfter(sectionCache.positionAt(keep), anchor, reversed)) {
+            View attached = lm.findViewByPosition(sectionCache.positionAt(keep));
+            if (attached != null && !SectionMath.shouldPop(start(attached), sectionsHeight(keep))) {
+                break;
+            }
+            keep--;
+        }
+        if (BuildConfig.SECTION_TRACE) {
+            SectionTrace.begin(SectionTrace.CLEAR_TOP);
+        }
+        recycleRemoved(sectionCache, sectionCache.clearTop(keep < 0 ? RecyclerView.NO_POSITION : sectionCache.positionAt(keep)), recycler);
+        if (BuildConfig.SECTION_TRACE) {
+            SectionTrace.end();
+        }
+
+        //以anchor结尾的Section：缺少的从Recycler获取（跳转或回滚时被淘汰的Section）
+        int chainStart = SectionMath.collectChain(sectionPositions, anchor, anchorChain, reversed);
+        if (chainStart < maxSectionCount) {
+            recycleRemoved(sectionCache, sectionCache.clearBottom(anchorChain[chainStart]), recycler);
+            for (int i = chainStart; i < maxSectionCount; i++) {
+                if (isAfter(anchorChain[i], sectionCache.peekPosition(), reversed)) {
+                    sectionCache.push(obtainSection(anchorChain[i], recycler), sectionIdAt(anchorChain[i]));
+                }
+            }
+            for (int i = maxSectionCount - 1; i >= chainStart; i--) {
+                int bottom = sectionCache.peekBottomPosition();
+                if (bottom != RecyclerView.NO_POSITION && isAfter(bottom, anchorChain[i], reversed)) {
+                    sectionCache.pushBottom(obtainSection(anchorChain[i], recycler), sectionIdAt(anchorChain[i]));
+                }
+            }
+        }
+
+        //屏幕内的Section进入吸顶区域后入栈
+        int peek = sectionCache.peekPosition();
+        int from = peek != RecyclerView.NO_POSITION && isAfter(peek, anchor, reversed) ? peek : anchor;
+        if (from == RecyclerView.NO_POSITION) {
+            from = reversed ? first + 1 : first - 1;
+        }
+        int next = nextInStack(from, reversed);
+        View nextView = null;
+        while (next != SectionIndex.NO_POSITION && (nextView = lm.findViewByPosition(next)) != null) {
+            int threshold = SectionMath.joinThreshold(sectionsHeight(sectionCache.size()),
+                    sectionsHeight(1), sectionCache.size() >= maxSectionCount);
+            if (start(nextView) >= threshold) {
+                break;
+            }
+            sectionCache.push(obtainSection(next, recycler), sectionIdAt(next));
+            recycleEvictedSections(recycler);
+            next = nextInStack(next, reversed);
+            nextView = null;
+        }
+        recycleEvictedSections(recycler);
+
+        //栈满的时候被下一个Section向上推
+        int offset = nextView == null ? 0 : SectionMath.pushOffset(start(nextView),
+                sectionsHeight(sectionCache.size()), sectionCache.size() >= maxSectionCount);
+        attachSections(sectionCache);
+        //只在栈的组成变化时layout，被推出的过程只修改translationY（横向时translationX），复用RenderNode
+        //RENDER_MODE_OVERLAY时同样在ViewGroupOverlay中layout和平移
+        boolean horizontal = isHorizontal();
+        int start = 0;
+        for (int i = 0; i < sectionCache.size(); i++) {
+            View itemView = sectionCache.get(i).itemView;
+            int w = itemView.getMeasuredWidth();
+            int h = itemView.getMeasuredHeight();
+            int left = horizontal ? start : 0;
+            int top = horizontal ? 0 : start;
+            if (itemView.getLeft() != left || itemView.getTop() != top || itemView.getWidth() != w
+                    || itemView.getHeight() != h || itemView.isLayoutRequested()) {
+                itemView.layout(left, top, left + w, top + h);
+                if (metrics != null) {
+                    metrics.relayouts++;
+                }
+            }
+            if (horizontal) {
+                itemView.setTranslationX(offset);
+            } else {
+                itemView.setTranslationY(offset);
+            }
+            start += horizontal ? w : h;
+        }
+    }
+
+    /**
+     * @return 堆叠顺序中position之后的下一个Section
+     */
+    private int nextInStack(int position, boolean reversed) {
+        return reversed ? sectionPositions.previousSection(position) : sectionPositions.nextSection(position);
+    }
+
+    /**
+     * notifyDataSetChanged之后，按sectionId保留下来的吸顶Section在原来的ViewHolder上重新绑定，不需要重新获取
+     */
+    private void rebindSections(RecyclerView.Recycler recycler) {
+        for (int i = 0; i < sectionCache.size(); i++) {
+            View itemView = sectionCache.get(i).itemView;
+            recycler.bindViewToPosition(itemView, sectionCache.positionAt(i));
+            lm.measureChildWithMargins(itemView, 0, 0);
+        }
+    }
+
+    /**
+     * @return 栈底开始count个Section的高度之和，横向时是宽度之和
+     */
+    private int sectionsHeight(int count) {
+        int height = 0;
+        for (int i = 0; i < count; i++) {
+            height += measuredSize(sectionCache.get(i).itemView);
+        }
+        return height;
+    }
+
+    /**
+     * 从Recycler获取一个独立的Section ViewHolder，测量后以detach状态交给sectionCache
+     * RENDER_MODE_OVERLAY时不加入RecyclerView，而是放在它的ViewGroupOverlay中：View保持attach，
+     * 内容变化时的invalidate会传递给RecyclerView，RenderNode在帧之间复用
+     */
+    private RecyclerView.ViewHolder obtainSection(int position, RecyclerView.Recycler recycler) {
+        if (BuildConfig.SECTION_TRACE) {
+            SectionTrace.begin(SectionTrace.OBTAIN_SECTION);
+        }
+        try {
+            return obtainSectionInternal(position, recycler);
+        } finally {
+            if (BuildConfig.SECTION_TRACE) {
+                SectionTrace.end();
+            }
+        }
+    }
+
+    private RecyclerView.ViewHolder obtainSectionInternal(int position, RecyclerView.Recycler recycler) {
+        View sectionView = recycler.getViewForPosition(position);
+        if (metrics != null) {
+            metrics.sectionsPushed++;
+        }
+        if (renderMode == SectionLayoutManager.RENDER_MODE_OVERLAY) {
+            lm.measureChildWithMargins(sectionView, 0, 0);
+            //加入overlay之前还没有parent，直接从LayoutParams得到ViewHolder
+            RecyclerView.ViewHolder section = getViewHolderByView(sectionView);
+            RecyclerView owner = owner();
+            if (owner != null) {
+                owner.getOverlay().add(sectionView);
+            }
+            return section;
+        }
+        if (metrics != null) {
+            metrics.viewsAttached++;
+            metrics.viewsDetached++;
+        }
+        lm.addView(sectionView);
+        lm.measureChildWithMargins(sectionView, 0, 0);
+        RecyclerView.ViewHolder section = getViewHolderByView(sectionView);
+        lm.detachView(sectionView);
+        return section;
+    }
+
+    private void recycleSection(RecyclerView.ViewHolder section, RecyclerView.Recycler recycler) {
+        if (BuildConfig.SECTION_TRACE) {
+            SectionTrace.begin(SectionTrace.RECYCLE_SECTION);
+        }
+        if (metrics != null) {
+            metrics.sectionsPopped++;
+        }
+        View itemView = section.itemView;
+        itemView.setTranslationX(0);
+        itemView.setTranslationY(0);
+        ViewParent parent = itemView.getParent();
+        if (parent instanceof RecyclerView) {
+            lm.removeAndRecycleView(itemView, recycler);
+            if (metrics != null) {
+                metrics.viewsDetached++;
+            }
+        } else {
+            //ViewGroupOverlay中的Section先移除，recycleView不接受有parent的View
+            if (parent instanceof ViewGroup) {
+                ((ViewGroup) parent).removeView(itemView);
+            }
+            recycler.recycleView(itemView);
+        }
+        if (BuildConfig.SECTION_TRACE) {
+            SectionTrace.end();
+        }
+    }
+
+    private void recycleRemoved(SectionCache cache, int removedCount, RecyclerView.Recycler recycler) {
+        for (int i = 0; i < removedCount; i++) {
+            recycleSection(cache.getRemoved(i), recycler);
+        }
+        cache.releaseRemoved();
+    }
+
+    /**
+     * 超出maxSectionCount的Section交还给RecyclerView的缓存池
+     */
+    private void recycleEvictedSections(RecyclerView.Recycler recycler) {
+        RecyclerView.ViewHolder evicted;
+        while ((evicted = sectionCache.evict()) != null) {
+            recycleSection(evicted, recycler);
+        }
+    }
+
+
+    /**
+     * 通过RecyclerView.getChildViewHolder获取ViewHolder，避免每次反射LayoutParams.mViewHolder
+     * 优先使用view所在的RecyclerView；没有parent的itemView（刚从Recycler获取或已经removeView）
+     * 直接读取LayoutParams中的ViewHolder，任意RecyclerView都可以查询，不依赖onAttachedToWindow；
+     * ViewGroupOverlay中的Section不是RecyclerView的child，从sectionCache和footerCache中查找
+     */
+    RecyclerView.ViewHolder getViewHolderByView(View view) {
+        if (view == null) {
+            return null;
+        }
+        ViewParent parent = view.getParent();
+        if (parent != null && !(parent instanceof RecyclerView)) {
+            RecyclerView.ViewHolder section = findSection(sectionCache, view);
+            return section != null ? section : findSection(footerCache, view);
+        }
+        RecyclerView owner = parent != null ? (RecyclerView) parent : owner();
+        return owner == null ? null : owner.getChildViewHolder(view);
+    }
+
+    private static RecyclerView.ViewHolder findSection(SectionCache cache, View view) {
+        for (int i = 0; i < cache.size(); i++) {
+            if (cache.get(i).itemView == view) {
+                return cache.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 没有attach到window时recyclerView为null，从列表中的child得到所属的RecyclerView
+     */
+    private RecyclerView owner() {
+        if (recyclerView != null) {
+            return recyclerView;
+        }
+        for (int i = 0, count = lm.getChildCount(); i < count; i++) {
+            ViewParent parent = lm.getChildAt(i).getParent();
+            if (parent instanceof RecyclerView) {
+                return (RecyclerView) parent;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * attach之后以RecyclerView当前的adapter为准，之前使用onAdapterChanged记录的adapter
+     */
+    private RecyclerView.Adapter<?> adapter() {
+        return recyclerView != null ? recyclerView.getAdapter() : adapter;
+    }
+}
@@ -0,0 +1,15 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+/**
+ * {@link SectionHelper} 需要的LayoutManager信息，LinearLayoutManager本身已经提供
+ *
+ * @author Rango on 2020/11/27
+ */
+interface SectionLayout {
+    /**
+     * @return 列表中第一个可见的item，不包括吸顶的Section
+     */
+    int findFirstVisibleItemPosition();
+
+    int getOrientation();
+}
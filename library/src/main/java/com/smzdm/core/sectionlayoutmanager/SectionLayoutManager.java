@@ -0,0 +1,354 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * 吸顶的状态和布局在 {@link SectionHelper} 中，这里只转发LinearLayoutManager的回调
+ *
+ * @author Rango on 2020/11/5
+ */
+public class SectionLayoutManager extends LinearLayoutManager implements SectionLayout {
+    /**
+     * 吸顶的Section作为RecyclerView的child，每帧detach/attach并重新layout
+     */
+    public static final int RENDER_MODE_CHILD = 0;
+    /**
+     * 吸顶的Section不作为child加入RecyclerView，而是放在它的ViewGroupOverlay中绘制在列表之上，
+     * 只在栈变化时layout，每帧只更新偏移量；吸顶的Section不响应点击
+     */
+    public static final int RENDER_MODE_OVERLAY = 1;
+
+    private final SectionHelper sectionHelper = new SectionHelper(this);
+
+    public SectionLayoutManager(Context context) {
+        super(context);
+    }
+
+    /**
+     * @param orientation {@link #HORIZONTAL} 时Section吸附在左边，从左往右堆叠
+     */
+    public SectionLayoutManager(Context context, int orientation, boolean reverseLayout) {
+        super(context, orientation, reverseLayout);
+    }
+
+    /**
+     * 在xml中通过 app:layoutManager 声明时使用
+     */
+    public SectionLayoutManager(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+    }
+
+    @Override
+    public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        sectionHelper.onAttachedToWindow(view);
+    }
+
+    @Override
+    public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        super.onDetachedFromWindow(view, recycler);
+        sectionHelper.onDetachedFromWindow(recycler);
+    }
+
+    @Override
+    public void setOrientation(int orientation) {
+        boolean changed = orientation != getOrientation();
+        super.setOrientation(orientation);
+        //父类构造函数中调用时sectionHelper还没有初始化
+        if (changed && sectionHelper != null) {
+            sectionHelper.onOrientationChanged();
+        }
+    }
+
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        sectionHelper.beforeLayout();
+        super.onLayoutChildren(recycler, state);
+        sectionHelper.afterLayout(recycler, state);
+    }
+
+    public int getMaxSectionCount() {
+        return sectionHelper.getMaxSectionCount();
+    }
+
+    /**
+     * @param maxSectionCount 同时吸顶的Section个数，按顺序从上往下堆叠
+     */
+    public void setMaxSectionCount(int maxSectionCount) {
+        sectionHelper.setMaxSectionCount(maxSectionCount);
+    }
+
+    public int getRenderMode() {
+        return sectionHelper.getRenderMode();
+    }
+
+    /**
+     * @param renderMode {@link #RENDER_MODE_CHILD} 或 {@link #RENDER_MODE_OVERLAY}，
+     *                   RENDER_MODE_OVERLAY需要配合 {@link MyRecyclerView} 使用
+     */
+    public void setRenderMode(int renderMode) {
+        sectionHelper.setRenderMode(renderMode);
+    }
+
+    public boolean isStickyFooters() {
+        return sectionHelper.isStickyFooters();
+    }
+
+    /**
+     * 最下面可见的分组的footer（{@link SectionProvider#isSectionFooter(int)}）没有完全显示时吸附在底部，
+     * 被分组的Section向下推出；需要SectionProvider，reverseLayout时不生效
+     */
+    public void setStickyFooters(boolean stickyFooters) {
+        sectionHelper.setStickyFooters(stickyFooters);
+    }
+
+    /**
+     * adapter被包装（如ConcatAdapter）或不方便实现 {@link SectionProvider} 时单独设置
+     *
+     * @param provider null表示使用adapter本身，adapter也没有实现时退回到根据ViewHolder判断
+     */
+    public void setSectionProvider(SectionProvider provider) {
+        sectionHelper.setSectionProvider(provider);
+    }
+
+    /**
+     * 没有 {@link SectionProvider} 时登记Section的viewType，没有布局过的Section也能找到；
+     * 不登记时某个viewType的ViewHolder（实现了 {@link Section}）第一次布局之后才能识别该类型的其它Section
+     */
+    public void setSectionViewTypes(int... viewTypes) {
+        sectionHelper.setSectionViewTypes(viewTypes);
+    }
+
+    /**
+     * @return position所属Section的sectionId，没有SectionProvider或不属于任何Section时返回 {@link RecyclerView#NO_ID}
+     */
+    public long getSectionId(int position) {
+        return sectionHelper.getSectionId(position);
+    }
+
+    public SectionViewPool getSectionViewPool() {
+        return sectionHelper.getSectionViewPool();
+    }
+
+    /**
+     * Section专用的缓存池，会设置为RecyclerView的RecycledViewPool，可以在多个SectionLayoutManager之间共享
+     * 发现Section的viewType后按 {@link #getMaxSectionCount()} 确定容量，并在后台线程预热
+     *
+     * @param pool null表示不再管理RecyclerView的缓存池
+     */
+    public void setSectionViewPool(SectionViewPool pool) {
+        sectionHelper.setSectionViewPool(pool);
+    }
+
+    /**
+     * 每次scrollVerticallyBy/scrollHorizontallyBy结束后回调，null表示关闭统计
+     */
+    public void setOnScrollMetricsListener(OnScrollMetricsListener listener) {
+        sectionHelper.setOnScrollMetricsListener(listener);
+    }
+
+    /**
+     * @return 当前缓存的Section个数
+     */
+    public int getSectionCacheSize() {
+        return sectionHelper.getSectionCacheSize();
+    }
+
+    /**
+     * LinearLayoutManager在fill的时候通过addView添加child，在这里记录Section的position
+     */
+    @Override
+    public void addView(View child, int index) {
+        super.addView(child, index);
+        sectionHelper.onAddView(child);
+    }
+
+    @Override
+    public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+        super.onAdapterChanged(oldAdapter, newAdapter);
+        sectionHelper.onAdapterChanged(newAdapter);
+    }
+
+    @Override
+    public void onItemsChanged(@NonNull RecyclerView recyclerView) {
+        super.onItemsChanged(recyclerView);
+        sectionHelper.onItemsChanged();
+    }
+
+    @Override
+    public void onItemsAdded(@NonNull RecyclerView recyclerView, int positionStart, int itemCount) {
+        super.onItemsAdded(recyclerView, positionStart, itemCount);
+        sectionHelper.onItemsAdded(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemsRemoved(@NonNull RecyclerView recyclerView, int positionStart, int itemCount) {
+        super.onItemsRemoved(recyclerView, positionStart, itemCount);
+        sectionHelper.onItemsRemoved(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemsMoved(@NonNull RecyclerView recyclerView, int from, int to, int itemCount) {
+        super.onItemsMoved(recyclerView, from, to, itemCount);
+        sectionHelper.onItemsMoved(from, to, itemCount);
+    }
+
+    @Override
+    public void onItemsUpdated(@NonNull RecyclerView recyclerView, int positionStart, int itemCount) {
+        super.onItemsUpdated(recyclerView, positionStart, itemCount);
+        sectionHelper.onItemsUpdated(positionStart, itemCount);
+    }
+
+    /**
+     * 以下查找和滚动条只统计列表自己的child，RENDER_MODE_CHILD时attach在最后的吸顶Section和footer不计入
+     */
+    @Override
+    public int findFirstVisibleItemPosition() {
+        return sectionHelper.findVisibleItemPosition(false, false);
+    }
+
+    @Override
+    public int findFirstCompletelyVisibleItemPosition() {
+        return sectionHelper.findVisibleItemPosition(false, true);
+    }
+
+    @Override
+    public int findLastVisibleItemPosition() {
+        return sectionHelper.findVisibleItemPosition(true, false);
+    }
+
+    @Override
+    public int findLastCompletelyVisibleItemPosition() {
+        return sectionHelper.findVisibleItemPosition(true, true);
+    }
+
+    @Override
+    public int computeVerticalScrollOffset(RecyclerView.State state) {
+        if (!sectionHelper.canUseHeightIndex(state)) {
+            return sectionHelper.computeScrollOffset(state);
+        }
+        return sectionHelper.computeVerticalScrollOffset();
+    }
+
+    @Override
+    public int computeVerticalScrollRange(RecyclerView.State state) {
+        if (!sectionHelper.canUseHeightIndex(state)) {
+            return sectionHelper.computeScrollRange(state);
+        }
+        return sectionHelper.computeVerticalScrollRange();
+    }
+
+    @Override
+    public int computeVerticalScrollExtent(RecyclerView.State state) {
+        if (!sectionHelper.canUseHeightIndex(state)) {
+            return sectionHelper.computeScrollExtent(state);
+        }
+        return sectionHelper.computeVerticalScrollExtent();
+    }
+
+    @Override
+    public int computeHorizontalScrollOffset(RecyclerView.State state) {
+        return sectionHelper.computeScrollOffset(state);
+    }
+
+    @Override
+    public int computeHorizontalScrollRange(RecyclerView.State state) {
+        return sectionHelper.computeScrollRange(state);
+    }
+
+    @Override
+    public int computeHorizontalScrollExtent(RecyclerView.State state) {
+        return sectionHelper.computeScrollExtent(state);
+    }
+
+    /**
+     * 预先设置viewType的高度，没有测量过的item使用，否则取该viewType第一次测量的高度
+     * 首次布局之前设置可以让很长的列表一开始就有稳定的滚动条
+     */
+    public void setEstimatedItemHeight(int viewType, int height) {
+        sectionHelper.setEstimatedItemHeight(viewType, height);
+    }
+
+    /**
+     * 滚动到精确的偏移量（与 {@link #computeVerticalScrollOffset(RecyclerView.State)} 一致），
+     * O(log n) 找到对应的position，不需要布局中间的item
+     */
+    public void scrollToVerticalOffset(int offset) {
+        sectionHelper.scrollToVerticalOffset(offset);
+    }
+
+    /**
+     * 获取position所属Section的position，不需要遍历已经attach的child
+     *
+     * @return 不存在时返回 {@link RecyclerView#NO_POSITION}
+     */
+    public int findSectionPosition(int position) {
+        return sectionHelper.findSectionPosition(position);
+    }
+
+    /**
+     * 整体思路，
+     * 吸顶的Section使用独立的ViewHolder（从Recycler获取），列表中对应位置的item照常布局
+     * 滚动/布局之前把吸顶的Section从RecyclerView中detach，避免被LinearLayoutManager当作普通child处理，
+     * 之后根据sectionPositions一次性计算出需要吸顶的Section和它们的位置，再attach回来
+     *
+     * @param dy       >0 是手指向上滑动
+     * @param recycler
+     * @param state
+     * @return
+     */
+    @Override
+    public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        long start = sectionHelper.beginScroll();
+        try {
+            sectionHelper.beforeLayout();
+            int result = super.scrollVerticallyBy(dy, recycler, state);
+            sectionHelper.afterLayout(recycler, state);
+            return result;
+        } finally {
+            sectionHelper.endScroll(start);
+        }
+    }
+
+    /**
+     * 同 {@link #scrollVerticallyBy(int, RecyclerView.Recycler, RecyclerView.State)}，Section吸附在左边并被向左推出
+     */
+    @Override
+    public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        long start = sectionHelper.beginScroll();
+        try {
+            sectionHelper.beforeLayout();
+            int result = super.scrollHorizontallyBy(dx, recycler, state);
+            sectionHelper.afterLayout(recycler, state);
+            return result;
+        } finally {
+            sectionHelper.endScroll(start);
+        }
+    }
+
+    @Override
+    public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                                 LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        if (!sectionHelper.collectAdjacentPrefetchPositions(dx, dy, state, layoutPrefetchRegistry)) {
+            super.collectAdjacentPrefetchPositions(dx, dy, state, layoutPrefetchRegistry);
+        }
+        sectionHelper.collectSectionPrefetchPositions(dx, dy, state, layoutPrefetchRegistry);
+    }
+
+    RecyclerView.ViewHolder getViewHolderByView(View view) {
+        return sectionHelper.getViewHolderByView(view);
+    }
+
+    public interface OnScrollMetricsListener {
+        /**
+         * @param metrics 复用的实例，只在回调期间有效
+         */
+        void onScrollMetrics(ScrollMetrics metrics);
+    }
+}
@@ -0,0 +1,35 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+/**
+ * adapter侧的Section信息，由adapter实现或通过 {@link SectionLayoutManager#setSectionProvider(SectionProvider)} 设置
+ * 有SectionProvider时，SectionLayoutManager只根据它建立索引，不再创建ViewHolder判断 {@link com.smzdm.core.sectionlayoutmanager.holders.Section}，
+ * 也不需要在每个child添加时检查ViewHolder；所有方法都不应该绑定或创建View
+ *
+ * @author Rango on 2020/11/24
+ */
+public interface SectionProvider {
+
+    /**
+     * reverseLayout时header是分组中position最大的item，显示在分组的最上面
+     *
+     * @return position是否是Section的header
+     */
+    boolean isSectionHeader(int position);
+
+    /**
+     * 同一个Section在数据变化前后保持不变的id，notifyDataSetChanged之后已经吸顶的Section根据它保留，
+     * 不能稳定时返回 {@link androidx.recyclerview.widget.RecyclerView#NO_ID}
+     *
+     * @param position header的position，{@link #isSectionHeader(int)} 为true
+     */
+    long getSectionId(int position);
+
+    /**
+     * footer是分组的最后一个item，开启 {@link SectionLayoutManager#setStickyFooters(boolean)} 后吸附在底部
+     *
+     * @return position是否是所在分组的footer
+     */
+    default boolean isSectionFooter(int position) {
+        return false;
+    }
+}
@@ -0,0 +1,268 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+
+import java.util.Arrays;
+
+/**
+ * {@link SectionGridLayoutManager} 使用的SpanSizeLookup，Section占满一行
+ * Section总是从新的一行开始，item的span index只取决于它在Section中的位置：
+ * 1. item的span size都是1时直接计算，O(log n)
+ * 2. 否则每个Section按需建立span index表并按Section的position缓存，
+ * adapter的range通知只丢弃受影响的Section，之后的Section平移key
+ * 第一个Section之前的item作为key为 {@link SectionIndex#NO_POSITION} 的一段
+ * getSpanGroupIndex使用每一段起始行号的前缀和，按段在sectionPositions中的下标缓存，变化位置之后的部分失效
+ * SectionHelper自己修改索引时（重新建立、布局中识别出Section）版本号变化，全部丢弃
+ *
+ * @author Rango on 2020/11/26
+ */
+final class SectionSpanSizeLookup extends GridLayoutManager.SpanSizeLookup {
+    private final GridLayoutManager lm;
+    private final SectionHelper helper;
+    /**
+     * 非Section的span size，null表示都是1
+     */
+    private GridLayoutManager.SpanSizeLookup itemLookup;
+    /**
+     * Section的position（升序） -> 该Section的span index表，[0, tableCount) 有效
+     */
+    private int[] tableKeys = new int[8];
+    private SpanTable[] tables = new SpanTable[8];
+    private int tableCount;
+    private int tableSpanCount;
+    private int indexVersion;
+    /**
+     * groupStarts[i] 是第i段之前的行数，第0段是第一个Section之前的item，第i段(i >= 1)从第i-1个Section开始
+     * [0, validGroups) 有效
+     */
+    private int[] groupStarts = new int[16];
+    private int validGroups = 1;
+    private int groupSpanCount;
+
+    SectionSpanSizeLookup(GridLayoutManager lm, SectionHelper helper) {
+        this.lm = lm;
+        this.helper = helper;
+    }
+
+    GridLayoutManager.SpanSizeLookup getItemLookup() {
+        return itemLookup;
+    }
+
+    /**
+     * 只使用lookup的getSpanSize
+     */
+    void setItemLookup(GridLayoutManager.SpanSizeLookup lookup) {
+        itemLookup = lookup instanceof GridLayoutManager.DefaultSpanSizeLookup ? null : lookup;
+        clear();
+    }
+
+    @Override
+    public int getSpanSize(int position) {
+        checkIndexVersion();
+        if (helper.isSectionPosition(position)) {
+            return lm.getSpanCount();
+        }
+        return itemLookup == null ? 1 : itemLookup.getSpanSize(position);
+    }
+
+    @Override
+    public int getSpanIndex(int position, int spanCount) {
+        checkIndexVersion();
+        if (helper.isSectionPosition(position)) {
+            return 0;
+        }
+        int section = helper.segmentStart(position);
+        int offset = position - section - 1;
+        if (itemLookup == null) {
+            return offset % spanCount;
+        }
+        return table(section, spanCount).spanIndex[offset];
+    }
+
+    /**
+     * 之前的行数由groupStarts给出，O(log n)；只有第一次查询或数据变化后才补齐缺少的前缀
+     */
+    @Override
+    public int getSpanGroupIndex(int position, int spanCount) {
+        checkIndexVersion();
+        boolean isSection = helper.isSectionPosition(position);
+        int segment = helper.sectionIndexOf(position) + 1;
+        int group = groupStart(segment, spanCount);
+        if (isSection) {
+            return group;
+        }
+        int section = segment == 0 ? SectionIndex.NO_POSITION : helper.sectionAt(segment - 1);
+        int offset = position - section - 1;
+        int row = itemLookup == null ? offset / spanCount : table(section, spanCount).row[offset];
+        return group + (segment == 0 ? 0 : 1) + row;
+    }
+
+    private void checkIndexVersion() {
+        int version = helper.getSectionIndexVersion();
+        if (version != indexVersion) {
+            indexVersion = version;
+            clear();
+        }
+    }
+
+    /**
+     * @return 第segment段之前的行数
+     */
+    private int groupStart(int segment, int spanCount) {
+        if (spanCount != groupSpanCount) {
+            validGroups = 1;
+            groupSpanCount = spanCount;
+        }
+        if (segment >= groupStarts.length) {
+            groupStarts = Arrays.copyOf(groupStarts, Math.max(segment + 1, groupStarts.length * 2));
+        }
+        for (int i = validGroups; i <= segment; i++) {
+            int key = i == 1 ? SectionIndex.NO_POSITION : helper.sectionAt(i - 2);
+            groupStarts[i] = groupStarts[i - 1] + rowCount(key, spanCount) + (i == 1 ? 0 : 1);
+        }
+        validGroups = Math.max(validGroups, segment + 1);
+        return groupStarts[segment];
+    }
+
+    /**
+     * @return 一段中除Section以外的item占的行数
+     */
+    private int rowCount(int section, int spanCount) {
+        if (itemLookup == null) {
+            return (segmentEnd(section) - section - 1 + spanCount - 1) / spanCount;
+        }
+        return table(section, spanCount).rowCount;
+    }
+
+    private int segmentEnd(int section) {
+        int next = helper.nextSectionPosition(section);
+        return next == SectionIndex.NO_POSITION ? lm.getItemCount() : next;
+    }
+
+    private SpanTable table(int section, int spanCount) {
+        if (spanCount != tableSpanCount) {
+            clearTables();
+            tableSpanCount = spanCount;
+        }
+        int i = Arrays.binarySearch(tableKeys, 0, tableCount, section);
+        if (i >= 0) {
+            return tables[i];
+        }
+        SpanTable table = buildTable(section, spanCount);
+        int insertAt = -(i + 1);
+        if (tableCount == tableKeys.length) {
+            tableKeys = Arrays.copyOf(tableKeys, tableCount << 1);
+            tables = Arrays.copyOf(tables, tableCount << 1);
+        }
+        System.arraycopy(tableKeys, insertAt, tableKeys, insertAt + 1, tableCount - insertAt);
+        System.arraycopy(tables, insertAt, tables, insertAt + 1, tableCount - insertAt);
+        tableKeys[insertAt] = section;
+        tables[insertAt] = table;
+        tableCount++;
+        return table;
+    }
+
+    private void clearTables() {
+        Arrays.fill(tables, 0, tableCount, null);
+        tableCount = 0;
+    }
+
+    /**
+     * 与SpanSizeLookup默认的getSpanIndex/getSpanGroupIndex规则一致，放不下的item换到下一行
+     */
+    private SpanTable buildTable(int section, int spanCount) {
+        int first = section + 1;
+        int count = Math.max(0, segmentEnd(section) - first);
+        SpanTable table = new SpanTable(count);
+        int span = 0;
+        int row = 0;
+        for (int i = 0; i < count; i++) {
+            int size = itemLookup.getSpanSize(first + i);
+            if (span + size > spanCount) {
+                span = 0;
+                row++;
+            }
+            table.spanIndex[i] = span;
+            table.row[i] = row;
+            span += size;
+        }
+        table.rowCount = count == 0 ? 0 : row + 1;
+        return table;
+    }
+
+    /**
+     * 对应 notifyItemRangeInserted：插入位置所在的一段失效，之后的Section平移
+     */
+    void onItemsAdded(int positionStart, int itemCount) {
+        invalidate(positionStart, positionStart, positionStart, itemCount);
+        invalidateGroups(positionStart);
+    }
+
+    /**
+     * 对应 notifyItemRangeRemoved：所在的一段和被移除的Section失效，之后的Section平移
+     */
+    void onItemsRemoved(int positionStart, int itemCount) {
+        int end = positionStart + itemCount;
+        invalidate(positionStart, end, end, -itemCount);
+        invalidateGroups(positionStart);
+    }
+
+    /**
+     * 对应 notifyItemRangeChanged：span size或Section可能变化，涉及的段失效
+     * positionStart处的Section变成普通item时，它之前的一段会延长，所以同样丢弃
+     */
+    void onItemsUpdated(int positionStart, int itemCount) {
+        invalidate(positionStart, positionStart + itemCount, positionStart + itemCount, 0);
+        invalidateGroups(positionStart);
+    }
+
+    void clear() {
+        clearTables();
+        validGroups = 1;
+    }
+
+    /**
+     * positionStart之前的Section不受影响，包含positionStart - 1的段以及之后的前缀和失效
+     */
+    private void invalidateGroups(int positionStart) {
+        int segment = positionStart == 0 ? 0 : helper.sectionIndexOf(positionStart - 1) + 1;
+        validGroups = Math.max(1, Math.min(validGroups, segment + 1));
+    }
+
+    /**
+     * 丢弃 [from, to) 中的key以及 < from 的最大key，>= shiftFrom 的key平移delta
+     * 只遍历已经缓存的表，通常只有屏幕附近的几个Section；保留的key顺序不变，原地压缩
+     */
+    private void invalidate(int from, int to, int shiftFrom, int delta) {
+        int containing = -1;
+        for (int i = 0; i < tableCount && tableKeys[i] < from; i++) {
+            containing = i;
+        }
+        int kept = 0;
+        for (int i = 0; i < tableCount; i++) {
+            int key = tableKeys[i];
+            if (i == containing || (key >= from && key < to)) {
+                continue;
+            }
+            tableKeys[kept] = key >= shiftFrom ? key + delta : key;
+            tables[kept] = tables[i];
+            kept++;
+        }
+        Arrays.fill(tables, kept, tableCount, null);
+        tableCount = kept;
+    }
+
+    private static final class SpanTable {
+        final int[] spanIndex;
+        /**
+         * 在这一段中的行号
+         */
+        final int[] row;
+        int rowCount;
+
+        SpanTable(int count) {
+            spanIndex = new int[count];
+            row = new int[count];
+        }
+    }
+}
@@ -0,0 +1,1084 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearSmoothScroller;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * 瀑布流版本的 {@link SectionLayoutManager}，只支持竖直方向
+ * Section占满一行，之后的item重新从最短的一列开始排列，列位置只取决于同一个Section中之前的item，
+ * 由 {@link SectionColumns} 按Section缓存（key为Section的position）：
+ * 1. 回滚时直接使用缓存的位置，不会出现StaggeredGridLayoutManager重新分配列造成的空隙
+ * 2. 跳转到某个Section中间时只需要测量该Section中之前的item，回滚到上一个Section时再测量上一个Section；
+ * 需要补全的item超过 {@link #MAX_EAGER_PLACEMENTS} 时从锚点开始放置，之前的item回滚露出时再逐个测量，
+ * 回滚到Section顶部后按顺序重新放置
+ * 3. adapter的range通知只让变化的item之后的部分重新放置，之后的Section平移key
+ *
+ * @author Rango on 2020/11/27
+ */
+public class SectionStaggeredGridLayoutManager extends RecyclerView.LayoutManager
+        implements SectionLayout, RecyclerView.SmoothScroller.ScrollVectorProvider {
+    /**
+     * 一帧中最多为了补全Section之前的部分测量的item个数，超过时从锚点开始放置
+     */
+    private static final int MAX_EAGER_PLACEMENTS = 32;
+
+    private final SectionHelper sectionHelper = new SectionHelper(this);
+    private int spanCount;
+
+    /**
+     * Section的position -> 该Section的列位置，第一个Section之前的item的key为 {@link SectionIndex#NO_POSITION}
+     */
+    private final Segments segments = new Segments();
+
+    /**
+     * 可见区域顶部所在的Section，以及它的顶部在RecyclerView中的位置，滚动时只修改anchorTop
+     */
+    private int anchorSection = SectionIndex.NO_POSITION;
+    private int anchorTop;
+
+    private int pendingPosition = RecyclerView.NO_POSITION;
+    private int pendingOffset;
+    /**
+     * 恢复状态时锚点item之前每一列的底部，只在宽度不变时使用
+     */
+    private int[] pendingLines;
+    private int pendingWidth;
+
+    /**
+     * 放置时测量过并且会显示的View，本次布局中直接使用，剩下的交还Recycler
+     */
+    private final SparseArray<View> measuredViews = new SparseArray<>();
+
+    /**
+     * 本次布局的可见区域，用于决定测量过的View是否保留
+     */
+    private int windowTop;
+    private int windowBottom;
+
+    /**
+     * layoutWindow经过的Section和它们的顶部
+     */
+    private int[] windowSections = new int[4];
+    private int[] windowTops = new int[4];
+    private int windowCount;
+
+    /**
+     * 已经到达第一个/最后一个item时内容的顶部/底部，否则为Integer.MIN_VALUE/MAX_VALUE
+     */
+    private int contentStart;
+    private int contentEnd;
+
+    /**
+     * 宽度变化后item高度可能变化，缓存全部失效
+     */
+    private int layoutWidth = -1;
+    private final Rect decorInsets = new Rect();
+
+    public SectionStaggeredGridLayoutManager(int spanCount) {
+        setSpanCount(spanCount);
+    }
+
+    /**
+     * 在xml中通过 app:layoutManager 声明时使用，列数取 app:spanCount
+     */
+    public SectionStaggeredGridLayoutManager(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        setSpanCount(getProperties(context, attrs, defStyleAttr, defStyleRes).spanCount);
+    }
+
+    public int getSpanCount() {
+        return spanCount;
+    }
+
+    public void setSpanCount(int spanCount) {
+        if (spanCount < 1) {
+            throw new IllegalArgumentException("spanCount < 1: " + spanCount);
+        }
+        if (this.spanCount == spanCount) {
+            return;
+        }
+        this.spanCount = spanCount;
+        segments.clear();
+        requestLayout();
+    }
+
+    @Override
+    public int getOrientation() {
+        return RecyclerView.VERTICAL;
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateDefaultLayoutParams() {
+        return new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public boolean isAutoMeasureEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean canScrollVertically() {
+        return true;
+    }
+
+    @Override
+    public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        sectionHelper.onAttachedToWindow(view);
+    }
+
+    @Override
+    public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        super.onDetachedFromWindow(view, recycler);
+        sectionHelper.onDetachedFromWindow(recycler);
+    }
+
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        sectionHelper.beforeLayout();
+        layoutChildren(recycler, state);
+        sectionHelper.afterLayout(recycler, state);
+    }
+
+    /**
+     * 以第一个child（或scrollToPosition的目标）为锚点，保持它的位置重新布局
+     */
+    private void layoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        int itemCount = state.getItemCount();
+        if (itemCount == 0) {
+            removeAndRecycleAllViews(recycler);
+            segments.clear();
+            pendingPosition = RecyclerView.NO_POSITION;
+            pendingLines = null;
+            return;
+        }
+        if (getWidth() != layoutWidth) {
+            layoutWidth = getWidth();
+            segments.clear();
+        }
+        int anchorPosition = 0;
+        int anchorOffset = 0;
+        int[] lines = null;
+        if (pendingPosition != RecyclerView.NO_POSITION) {
+            anchorPosition = pendingPosition;
+            anchorOffset = pendingOffset;
+            if (pendingLines != null && pendingWidth == layoutWidth && pendingLines.length == spanCount) {
+                lines = pendingLines;
+            }
+            pendingPosition = RecyclerView.NO_POSITION;
+            pendingLines = null;
+        } else {
+            syncChildHeights();
+            for (int i = 0; i < getChildCount(); i++) {
+                View child = getChildAt(i);
+                RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+                if (!lp.isItemRemoved()) {
+                    anchorPosition = lp.getViewLayoutPosition();
+                    anchorOffset = getDecoratedTop(child) - lp.topMargin - getPaddingTop();
+                    break;
+                }
+            }
+        }
+        anchorPosition = Math.max(0, Math.min(anchorPosition, itemCount - 1));
+        detachAndScrapAttachedViews(recycler);
+
+        windowTop = getPaddingTop();
+        windowBottom = getHeight() - getPaddingBottom();
+        int section = sectionHelper.isSectionPosition(anchorPosition)
+                ? anchorPosition : sectionHelper.findSectionPosition(anchorPosition);
+        Segment segment = segment(section);
+        anchorSection = section;
+        anchorTop = windowTop + anchorOffset;
+        if (anchorPosition != section) {
+            //Section的顶部还不知道，之前的item测量后不保留
+            int index = anchorPosition - section - 1;
+            int headerHeight = headerHeight(section, segment, Integer.MIN_VALUE, recycler);
+            SectionColumns columns = segment.columns;
+            if (!columns.isPlaced(index)) {
+                if (columns.isFloating() || index - columns.end() > MAX_EAGER_PLACEMENTS) {
+                    columns.floatAt(index, lines);
+                } else {
+                    while (columns.end() <= index) {
+                        placeNext(section, segment, Integer.MIN_VALUE, recycler);
+                    }
+                }
+            }
+            anchorTop -= headerHeight + (columns.isPlaced(index) ? columns.topAt(index) : columns.nextTop());
+        }
+        layoutWindow(recycler);
+        //内容不足一屏或者锚点之前还有空白时对齐
+        if (contentEnd < windowBottom) {
+            scrollBy(contentEnd - windowBottom, recycler);
+        }
+        if (contentStart > windowTop) {
+            scrollBy(contentStart - windowTop, recycler);
+        }
+    }
+
+    /**
+     * 没有经过adapter通知的高度变化（如图片加载后requestLayout），从变化的item开始重新放置
+     */
+    private void syncChildHeights() {
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (!child.isLayoutRequested()) {
+                continue;
+            }
+            int position = getPosition(child);
+            if (sectionHelper.isSectionPosition(position)) {
+                Segment segment = segments.get(position);
+                if (segment != null) {
+                    segment.headerHeight = -1;
+                }
+                continue;
+            }
+            int section = sectionHelper.findSectionPosition(position);
+            Segment segment = segments.get(section);
+            int index = position - section - 1;
+            if (segment == null || !segment.columns.isPlaced(index)) {
+                continue;
+            }
+            measureChild(child, false);
+            if (decoratedHeight(child) != segment.columns.heightAt(index)) {
+                segment.columns.truncate(index);
+            }
+        }
+    }
+
+    @Override
+    public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        long start = sectionHelper.beginScroll();
+        try {
+            sectionHelper.beforeLayout();
+            int result = getChildCount() == 0 || dy == 0 ? 0 : scrollBy(dy, recycler);
+            sectionHelper.afterLayout(recycler, state);
+            return result;
+        } finally {
+            sectionHelper.endScroll(start);
+        }
+    }
+
+    private int scrollBy(int dy, RecyclerView.Recycler recycler) {
+        int consumed = clampScroll(dy, recycler);
+        if (consumed != 0) {
+            anchorTop -= consumed;
+            offsetChildrenVertical(-consumed);
+        }
+        layoutWindow(recycler);
+        return consumed;
+    }
+
+    /**
+     * 向下滚动时放置新露出的item，直到覆盖dy或者到达最后一个item；
+     * 向上滚动时从锚点开始放置的Section逐个放置露出的item，跨过Section时需要补全上一个Section
+     *
+     * @return 实际可以滚动的距离
+     */
+    private int clampScroll(int dy, RecyclerView.Recycler recycler) {
+        int top = getPaddingTop();
+        int bottom = getHeight() - getPaddingBottom();
+        windowTop = top + dy;
+        windowBottom = bottom + dy;
+        int section = anchorSection;
+        int sectionTop = anchorTop;
+        if (dy > 0) {
+            while (true) {
+                Segment segment = segment(section);
+                int contentTop = sectionTop + headerHeight(section, segment, sectionTop, recycler);
+                while (!isComplete(section, segment) && contentTop + segment.columns.nextTop() < windowBottom) {
+                    placeNext(section, segment, contentTop, recycler);
+                }
+                if (!isComplete(section, segment)) {
+                    return dy;
+                }
+                sectionTop = contentTop + segment.columns.height();
+                section = sectionHelper.nextSectionPosition(section);
+                if (section == RecyclerView.NO_POSITION) {
+                    return Math.max(0, Math.min(dy, sectionTop - bottom));
+                }
+                if (sectionTop >= windowBottom) {
+                    return dy;
+                }
+            }
+        }
+        while (true) {
+            Segment segment = segment(section);
+            int contentTop = sectionTop + headerHeight(section, segment, sectionTop, recycler);
+            while (segment.columns.isFloating() && contentTop > windowTop) {
+                int grown = placeAbove(section, segment, contentTop, recycler);
+                contentTop -= grown;
+                sectionTop -= grown;
+                if (section == anchorSection) {
+                    anchorTop -= grown;
+                }
+            }
+            if (segment.columns.isFloating()) {
+                //之前还有没有放置的item
+                return dy;
+            }
+            if (sectionTop <= windowTop || section <= 0) {
+                return Math.max(dy, Math.min(0, sectionTop - top));
+            }
+            int previous = sectionHelper.findSectionPosition(section - 1);
+            sectionTop -= sectionHeight(previous, recycler);
+            section = previous;
+        }
+    }
+
+    /**
+     * 按anchorSection/anchorTop布局可见区域内的item，已经attach的child位置没有变化时不重新layout
+     */
+    private void layoutWindow(RecyclerView.Recycler recycler) {
+        windowTop = getPaddingTop();
+        windowBottom = getHeight() - getPaddingBottom();
+        normalizeAnchor(recycler);
+        contentStart = anchorSection > 0 || segment(anchorSection).columns.isFloating() ? Integer.MIN_VALUE : anchorTop;
+        contentEnd = Integer.MAX_VALUE;
+        windowCount = 0;
+        int first = RecyclerView.NO_POSITION;
+        int last = RecyclerView.NO_POSITION;
+        int section = anchorSection;
+        int sectionTop = anchorTop;
+        while (sectionTop < windowBottom) {
+            Segment segment = segment(section);
+            int contentTop = sectionTop + headerHeight(section, segment, sectionTop, recycler);
+            while (!isComplete(section, segment) && contentTop + segment.columns.nextTop() < windowBottom) {
+                placeNext(section, segment, contentTop, recycler);
+            }
+            addWindowSection(section, sectionTop);
+            if (section != SectionIndex.NO_POSITION && contentTop > windowTop && !segment.columns.isFloating()) {
+                if (first == RecyclerView.NO_POSITION) {
+                    first = section;
+                }
+                last = section;
+            }
+            int from = segment.columns.firstVisible(windowTop - contentTop);
+            int to = segment.columns.indexAt(windowBottom - contentTop);
+            if (from < to) {
+                if (first == RecyclerView.NO_POSITION) {
+                    first = section + 1 + from;
+                }
+                last = section + to;
+            }
+            if (!isComplete(section, segment)) {
+                break;
+            }
+            sectionTop = contentTop + segment.columns.height();
+            section = sectionHelper.nextSectionPosition(section);
+            if (section == RecyclerView.NO_POSITION) {
+                contentEnd = sectionTop;
+                break;
+            }
+        }
+        attachWindow(first, last, recycler);
+        for (int i = 0; i < measuredViews.size(); i++) {
+            recycler.recycleView(measuredViews.valueAt(i));
+        }
+        measuredViews.clear();
+    }
+
+    /**
+     * 锚点移动到可见区域顶部所在的Section
+     */
+    private void normalizeAnchor(RecyclerView.Recycler recycler) {
+        while (true) {
+            Segment segment = segment(anchorSection);
+            int contentTop = anchorTop + headerHeight(anchorSection, segment, anchorTop, recycler);
+            while (segment.columns.isFloating() && contentTop > windowTop) {
+                int grown = placeAbove(anchorSection, segment, contentTop, recycler);
+                contentTop -= grown;
+                anchorTop -= grown;
+            }
+            if (segment.columns.isFloating() || anchorTop <= windowTop || anchorSection <= 0) {
+                break;
+            }
+            int previous = sectionHelper.findSectionPosition(anchorSection - 1);
+            anchorTop -= sectionHeight(previous, recycler);
+            anchorSection = previous;
+        }
+        while (true) {
+            Segment segment = segment(anchorSection);
+            int contentTop = anchorTop + headerHeight(anchorSection, segment, anchorTop, recycler);
+            while (!isComplete(anchorSection, segment) && contentTop + segment.columns.nextTop() < windowTop) {
+                placeNext(anchorSection, segment, contentTop, recycler);
+            }
+            int next = sectionHelper.nextSectionPosition(anchorSection);
+            int bottom = contentTop + segment.columns.height();
+            if (!isComplete(anchorSection, segment) || next == RecyclerView.NO_POSITION || bottom > windowTop) {
+                return;
+            }
+            anchorSection = next;
+            anchorTop = bottom;
+        }
+    }
+
+    private void addWindowSection(int section, int top) {
+        if (windowCount == windowSections.length) {
+            windowSections = Arrays.copyOf(windowSections, windowCount * 2);
+            windowTops = Arrays.copyOf(windowTops, windowCount * 2);
+        }
+        windowSections[windowCount] = section;
+        windowTops[windowCount] = top;
+        windowCount++;
+    }
+
+    /**
+     * child按position排列，[first, last]之外的回收，缺少的按顺序插入
+     */
+    private void attachWindow(int first, int last, RecyclerView.Recycler recycler) {
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            int position = getPosition(getChildAt(i));
+            if (first == RecyclerView.NO_POSITION || position < first || position > last) {
+                removeAndRecycleViewAt(i, recycler);
+            }
+        }
+        if (first == RecyclerView.NO_POSITION) {
+            return;
+        }
+        int window = 0;
+        int index = 0;
+        for (int position = first; position <= last; position++, index++) {
+            while (window + 1 < windowCount && windowSections[window + 1] <= position) {
+                window++;
+            }
+            int section = windowSections[window];
+            View child = index < getChildCount() ? getChildAt(index) : null;
+            if (child == null || getPosition(child) != position) {
+                child = measuredViews.get(position);
+                if (child != null) {
+                    measuredViews.remove(position);
+                } else {
+                    child = recycler.getViewForPosition(position);
+                    measureChild(child, position == section);
+                }
+                addView(child, index);
+            }
+            layoutChild(child, position, section, windowTops[window]);
+        }
+    }
+
+    private void layoutChild(View child, int position, int section, int sectionTop) {
+        RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+        int left = getPaddingLeft();
+        int top = sectionTop;
+        if (position != section) {
+            Segment segment = segments.get(section);
+            int index = position - section - 1;
+            left += segment.columns.columnAt(index) * spanWidth();
+            top += segment.headerHeight + segment.columns.topAt(index);
+        }
+        if (!child.isLayoutRequested() && getDecoratedLeft(child) - lp.leftMargin == left
+                && getDecoratedTop(child) - lp.topMargin == top) {
+            return;
+        }
+        layoutDecoratedWithMargins(child, left, top,
+                left + getDecoratedMeasuredWidth(child) + lp.leftMargin + lp.rightMargin, top + decoratedHeight(child));
+    }
+
+    private Segment segment(int section) {
+        Segment segment = segments.get(section);
+        if (segment == null) {
+            segment = new Segment(spanCount);
+            segments.put(section, segment);
+        }
+        return segment;
+    }
+
+    private boolean isComplete(int section, Segment segment) {
+        int next = sectionHelper.nextSectionPosition(section);
+        int end = next == RecyclerView.NO_POSITION ? getItemCount() : next;
+        return segment.columns.end() >= end - section - 1;
+    }
+
+    /**
+     * 回滚到上一个Section时补全它之后的部分，剩下的item较多时从Section底部开始向上放置
+     *
+     * @return Section已经放置的部分的高度，从锚点开始放置时顶部还会继续上移
+     */
+    private int sectionHeight(int section, RecyclerView.Recycler recycler) {
+        Segment segment = segment(section);
+        int headerHeight = headerHeight(section, segment, Integer.MIN_VALUE, recycler);
+        if (!isComplete(section, segment)) {
+            int next = sectionHelper.nextSectionPosition(section);
+            int count = (next == RecyclerView.NO_POSITION ? getItemCount() : next) - section - 1;
+            if (count - segment.columns.end() > MAX_EAGER_PLACEMENTS) {
+                segment.columns.floatAt(count, null);
+            }
+            while (!isComplete(section, segment)) {
+                placeNext(section, segment, Integer.MIN_VALUE, recycler);
+            }
+        }
+        return headerHeight + segment.columns.height();
+    }
+
+    /**
+     * @param top Section的顶部，Integer.MIN_VALUE表示还不知道，测量后不保留
+     */
+    private int headerHeight(int section, Segment segment, int top, RecyclerView.Recycler recycler) {
+        if (section == SectionIndex.NO_POSITION) {
+            segment.headerHeight = 0;
+        } else if (segment.headerHeight < 0) {
+            View view = obtainMeasured(section, true, recycler);
+            segment.headerHeight = decoratedHeight(view);
+            release(section, view, top, segment.headerHeight, recycler);
+        }
+        return segment.headerHeight;
+    }
+
+    /**
+     * 测量并放置Section中的下一个item
+     *
+     * @param contentTop Section内容的顶部，Integer.MIN_VALUE表示还不知道
+     */
+    private void placeNext(int section, Segment segment, int contentTop, RecyclerView.Recycler recycler) {
+        int index = segment.columns.end();
+        int position = section + 1 + index;
+        View view = obtainMeasured(position, false, recycler);
+        int height = decoratedHeight(view);
+        segment.columns.place(height);
+        release(position, view, contentTop == Integer.MIN_VALUE
+                ? Integer.MIN_VALUE : contentTop + segment.columns.topAt(index), height, recycler);
+    }
+
+    /**
+     * 测量并向上放置从锚点开始放置的Section中之前的一个item
+     *
+     * @param contentTop Section内容的顶部
+     * @return 内容顶部上移的距离
+     */
+    private int placeAbove(int section, Segment segment, int contentTop, RecyclerView.Recycler recycler) {
+        int index = segment.columns.previousIndex();
+        int position = section + 1 + index;
+        View view = obtainMeasured(position, false, recycler);
+        int height = decoratedHeight(view);
+        int grown = segment.columns.placeAbove(height);
+        release(position, view, contentTop - grown + segment.columns.topAt(index), height, recycler);
+        return grown;
+    }
+
+    private View obtainMeasured(int position, boolean fullSpan, RecyclerView.Recycler recycler) {
+        View view = findViewByPosition(position);
+        if (view != null) {
+            if (view.isLayoutRequested()) {
+                measureChild(view, fullSpan);
+            }
+            return view;
+        }
+        view = measuredViews.get(position);
+        if (view == null) {
+            view = recycler.getViewForPosition(position);
+            measureChild(view, fullSpan);
+        }
+        return view;
+    }
+
+    /**
+     * 测量后的View在可见区域内时保留到attachWindow，否则直接回收
+     */
+    private void release(int position, View view, int top, int height, RecyclerView.Recycler recycler) {
+        if (view.getParent() != null) {
+            return;
+        }
+        if (top != Integer.MIN_VALUE && top < windowBottom && top + height > windowTop) {
+            measuredViews.put(position, view);
+        } else {
+            measuredViews.remove(position);
+            recycler.recycleView(view);
+        }
+    }
+
+    private int spanWidth() {
+        return (getWidth() - getPaddingLeft() - getPaddingRight()) / spanCount;
+    }
+
+    /**
+     * Section占满宽度，其它item的宽度为一列
+     */
+    private void measureChild(View child, boolean fullSpan) {
+        RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+        calculateItemDecorationsForChild(child, decorInsets);
+        int width = fullSpan ? getWidth() - getPaddingLeft() - getPaddingRight() : spanWidth();
+        int widthSpec = getChildMeasureSpec(width, View.MeasureSpec.EXACTLY,
+                decorInsets.left + decorInsets.right + lp.leftMargin + lp.rightMargin, lp.width, false);
+        int heightSpec = getChildMeasureSpec(getHeight(), getHeightMode(),
+                getPaddingTop() + getPaddingBottom() + decorInsets.top + decorInsets.bottom + lp.topMargin + lp.bottomMargin,
+                lp.height, true);
+        child.measure(widthSpec, heightSpec);
+    }
+
+    private int decoratedHeight(View child) {
+        RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+        return getDecoratedMeasuredHeight(child) + lp.topMargin + lp.bottomMargin;
+    }
+
+    /**
+     * @return 列表中第一个可见的item，不包括吸顶的Section
+     */
+    @Override
+    public int findFirstVisibleItemPosition() {
+        int top = getPaddingTop();
+        int bottom = getHeight() - getPaddingBottom();
+        int listChildCount = getChildCount() - sectionHelper.attachedSectionCount();
+        for (int i = 0; i < listChildCount; i++) {
+            View child = getChildAt(i);
+            if (getDecoratedBottom(child) > top && getDecoratedTop(child) < bottom) {
+                return getPosition(child);
+            }
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    @Override
+    public void scrollToPosition(int position) {
+        scrollToPositionWithOffset(position, 0);
+    }
+
+    /**
+     * 跳转时只放置目标所在Section中之前的item
+     *
+     * @param offset item顶部到列表顶部（padding之内）的距离
+     */
+    public void scrollToPositionWithOffset(int position, int offset) {
+        pendingPosition = position;
+        pendingOffset = offset;
+        pendingLines = null;
+        requestLayout();
+    }
+
+    /**
+     * 保存第一个child的位置和偏移，以及它之前每一列的底部；
+     * 恢复时宽度不变则从它开始按相同的列放置，不需要测量之前的item
+     */
+    @Override
+    public Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState();
+        state.width = layoutWidth;
+        if (pendingPosition != RecyclerView.NO_POSITION) {
+            state.position = pendingPosition;
+            state.offset = pendingOffset;
+            state.lines = pendingLines;
+            state.width = pendingWidth;
+            return state;
+        }
+        int listChildCount = getChildCount() - sectionHelper.attachedSectionCount();
+        if (listChildCount == 0) {
+            return state;
+        }
+        View child = getChildAt(0);
+        RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+        state.position = getPosition(child);
+        state.offset = getDecoratedTop(child) - lp.topMargin - getPaddingTop();
+        int section = sectionHelper.findSectionPosition(state.position);
+        Segment segment = segments.get(section);
+        int index = state.position - section - 1;
+        if (state.position != section && segment != null && segment.columns.isPlaced(index)) {
+            state.lines = new int[spanCount];
+            segment.columns.linesAt(index, state.lines);
+        }
+        return state;
+    }
+
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        if (savedState.position == RecyclerView.NO_POSITION) {
+            return;
+        }
+        pendingPosition = savedState.position;
+        pendingOffset = savedState.offset;
+        pendingLines = savedState.lines;
+        pendingWidth = savedState.width;
+        requestLayout();
+    }
+
+    @Override
+    public void smoothScrollToPosition(RecyclerView recyclerView, RecyclerView.State state, int position) {
+        LinearSmoothScroller scroller = new LinearSmoothScroller(recyclerView.getContext());
+        scroller.setTargetPosition(position);
+        startSmoothScroll(scroller);
+    }
+
+    @Override
+    public PointF computeScrollVectorForPosition(int targetPosition) {
+        if (getChildCount() == 0) {
+            return null;
+        }
+        return new PointF(0, targetPosition < getPosition(getChildAt(0)) ? -1 : 1);
+    }
+
+    /**
+     * 各Section的高度只在放置后才知道，滚动条按可见item的平均高度估算
+     */
+    @Override
+    public int computeVerticalScrollOffset(RecyclerView.State state) {
+        int listChildCount = getChildCount() - sectionHelper.attachedSectionCount();
+        if (listChildCount == 0) {
+            return 0;
+        }
+        int first = getPosition(getChildAt(0));
+        return Math.max(0, Math.round(first * averageHeight(listChildCount) + getPaddingTop() - visibleTop(listChildCount)));
+    }
+
+    @Override
+    public int computeVerticalScrollRange(RecyclerView.State state) {
+        int listChildCount = getChildCount() - sectionHelper.attachedSectionCount();
+        if (listChildCount == 0) {
+            return 0;
+        }
+        return Math.round(state.getItemCount() * averageHeight(listChildCount));
+    }
+
+    @Override
+    public int computeVerticalScrollExtent(RecyclerView.State state) {
+        int listChildCount = getChildCount() - sectionHelper.attachedSectionCount();
+        if (listChildCount == 0) {
+            return 0;
+        }
+        return Math.min(getHeight() - getPaddingTop() - getPaddingBottom(),
+                visibleBottom(listChildCount) - visibleTop(listChildCount));
+    }
+
+    private float averageHeight(int listChildCount) {
+        int first = getPosition(getChildAt(0));
+        int last = getPosition(getChildAt(listChildCount - 1));
+        return (visibleBottom(listChildCount) - visibleTop(listChildCount)) / (float) (last - first + 1);
+    }
+
+    private int visibleTop(int listChildCount) {
+        int top = Integer.MAX_VALUE;
+        for (int i = 0; i < listChildCount; i++) {
+            top = Math.min(top, getDecoratedTop(getChildAt(i)));
+        }
+        return top;
+    }
+
+    private int visibleBottom(int listChildCount) {
+        int bottom = Integer.MIN_VALUE;
+        for (int i = 0; i < listChildCount; i++) {
+            bottom = Math.max(bottom, getDecoratedBottom(getChildAt(i)));
+        }
+        return bottom;
+    }
+
+    /**
+     * 相邻的item按position取，吸顶的Section作为child排在最后，不能用默认实现
+     */
+    @Override
+    public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                                 LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        int listChildCount = getChildCount() - sectionHelper.attachedSectionCount();
+        if (dy != 0 && listChildCount > 0) {
+            if (dy > 0) {
+                View last = getChildAt(listChildCount - 1);
+                int position = getPosition(last) + 1;
+                if (position < state.getItemCount()) {
+                    layoutPrefetchRegistry.addPosition(position,
+                            Math.max(0, getDecoratedBottom(last) - (getHeight() - getPaddingBottom())));
+                }
+            } else {
+                View first = getChildAt(0);
+                int position = getPosition(first) - 1;
+                if (position >= 0) {
+                    layoutPrefetchRegistry.addPosition(position, Math.max(0, getPaddingTop() - getDecoratedTop(first)));
+                }
+            }
+        }
+        sectionHelper.collectSectionPrefetchPositions(dx, dy, state, layoutPrefetchRegistry);
+    }
+
+    public int getMaxSectionCount() {
+        return sectionHelper.getMaxSectionCount();
+    }
+
+    /**
+     * @param maxSectionCount 同时吸顶的Section个数，按顺序从上往下堆叠
+     */
+    public void setMaxSectionCount(int maxSectionCount) {
+        sectionHelper.setMaxSectionCount(maxSectionCount);
+    }
+
+    public int getRenderMode() {
+        return sectionHelper.getRenderMode();
+    }
+
+    /**
+     * @param renderMode {@link SectionLayoutManager#RENDER_MODE_CHILD} 或 {@link SectionLayoutManager#RENDER_MODE_OVERLAY}
+     */
+    public void setRenderMode(int renderMode) {
+        sectionHelper.setRenderMode(renderMode);
+    }
+
+    /**
+     * @see SectionLayoutManager#setSectionProvider(SectionProvider)
+     */
+    public void setSectionProvider(SectionProvider provider) {
+        sectionHelper.setSectionProvider(provider);
+    }
+
+    /**
+     * @see SectionLayoutManager#setSectionViewTypes(int...)
+     */
+    public void setSectionViewTypes(int... viewTypes) {
+        sectionHelper.setSectionViewTypes(viewTypes);
+    }
+
+    public long getSectionId(int position) {
+        return sectionHelper.getSectionId(position);
+    }
+
+    public SectionViewPool getSectionViewPool() {
+        return sectionHelper.getSectionViewPool();
+    }
+
+    /**
+     * @see SectionLayoutManager#setSectionViewPool(SectionViewPool)
+     */
+    public void setSectionViewPool(SectionViewPool pool) {
+        sectionHelper.setSectionViewPool(pool);
+    }
+
+    public void setOnScrollMetricsListener(SectionLayoutManager.OnScrollMetricsListener listener) {
+        sectionHelper.setOnScrollMetricsListener(listener);
+    }
+
+    public int getSectionCacheSize() {
+        return sectionHelper.getSectionCacheSize();
+    }
+
+    public int findSectionPosition(int position) {
+        return sectionHelper.findSectionPosition(position);
+    }
+
+    @Override
+    public void addView(View child, int index) {
+        super.addView(child, index);
+        sectionHelper.onAddView(child);
+    }
+
+    @Override
+    public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+        super.onAdapterChanged(oldAdapter, newAdapter);
+        sectionHelper.onAdapterChanged(newAdapter);
+        segments.clear();
+    }
+
+    @Override
+    public void onItemsChanged(@NonNull RecyclerView recyclerView) {
+        super.onItemsChanged(recyclerView);
+        sectionHelper.onItemsChanged();
+        segments.clear();
+    }
+
+    /**
+     * 插入位置所在的Section从插入处开始重新放置，之后的Section平移
+     */
+    @Override
+    public void onItemsAdded(@NonNull RecyclerView recyclerView, int positionStart, int itemCount) {
+        super.onItemsAdded(recyclerView, positionStart, itemCount);
+        sectionHelper.onItemsAdded(positionStart, itemCount);
+        for (int i = 0; i < segments.size(); i++) {
+            int section = segments.keyAt(i);
+            if (section >= positionStart) {
+                segments.setKeyAt(i, section + itemCount);
+            } else {
+                truncate(section, segments.valueAt(i), positionStart);
+            }
+        }
+    }
+
+    /**
+     * 被删除的Section丢弃，所在的Section从删除处开始重新放置，之后的Section平移
+     */
+    @Override
+    public void onItemsRemoved(@NonNull RecyclerView recyclerView, int positionStart, int itemCount) {
+        super.onItemsRemoved(recyclerView, positionStart, itemCount);
+        sectionHelper.onItemsRemoved(positionStart, itemCount);
+        int end = positionStart + itemCount;
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            int section = segments.keyAt(i);
+            if (section >= end) {
+                segments.setKeyAt(i, section - itemCount);
+            } else if (section < positionStart) {
+                truncate(section, segments.valueAt(i), positionStart);
+            } else {
+                segments.removeAt(i);
+            }
+        }
+    }
+
+    @Override
+    public void onItemsMoved(@NonNull RecyclerView recyclerView, int from, int to, int itemCount) {
+        super.onItemsMoved(recyclerView, from, to, itemCount);
+        sectionHelper.onItemsMoved(from, to, itemCount);
+        segments.clear();
+    }
+
+    /**
+     * 高度可能变化：Section重新测量，item从第一个变化的开始重新放置；不再是Section的key丢弃
+     */
+    @Override
+    public void onItemsUpdated(@NonNull RecyclerView recyclerView, int positionStart, int itemCount) {
+        super.onItemsUpdated(recyclerView, positionStart, itemCount);
+        sectionHelper.onItemsUpdated(positionStart, itemCount);
+        int end = positionStart + itemCount;
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            int section = segments.keyAt(i);
+            Segment segment = segments.valueAt(i);
+            if (section >= end) {
+                continue;
+            }
+            if (section < positionStart) {
+                truncate(section, segment, positionStart);
+            } else if (!sectionHelper.isSectionPosition(section)) {
+                segments.removeAt(i);
+            } else {
+                segment.headerHeight = -1;
+                if (section + 1 < end) {
+                    segment.columns.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * 只保留position之前的item，position不在该Section中时没有影响
+     */
+    private static void truncate(int section, Segment segment, int position) {
+        segment.columns.truncate(position - section - 1);
+    }
+
+    public static class SavedState implements Parcelable {
+        int position = RecyclerView.NO_POSITION;
+        int offset;
+        int width;
+        /**
+         * position之前每一列的底部，相对于position的顶部，null表示没有
+         */
+        int[] lines;
+
+        SavedState() {
+        }
+
+        SavedState(Parcel in) {
+            position = in.readInt();
+            offset = in.readInt();
+            width = in.readInt();
+            lines = in.createIntArray();
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            dest.writeInt(position);
+            dest.writeInt(offset);
+            dest.writeInt(width);
+            dest.writeIntArray(lines);
+        }
+
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    /**
+     * Section的position（升序） -> Segment，adapter的range通知原地平移key，不重新分配
+     */
+    private static final class Segments {
+        private int[] keys = new int[8];
+        private Segment[] values = new Segment[8];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int keyAt(int index) {
+            return keys[index];
+        }
+
+        /**
+         * 调用方保证平移后仍然升序
+         */
+        void setKeyAt(int index, int key) {
+            keys[index] = key;
+        }
+
+        Segment valueAt(int index) {
+            return values[index];
+        }
+
+        Segment get(int key) {
+            int i = Arrays.binarySearch(keys, 0, size, key);
+            return i >= 0 ? values[i] : null;
+        }
+
+        void put(int key, Segment segment) {
+            int i = Arrays.binarySearch(keys, 0, size, key);
+            if (i >= 0) {
+                values[i] = segment;
+                return;
+            }
+            int insertAt = -(i + 1);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                values = Arrays.copyOf(values, size << 1);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            keys[insertAt] = key;
+            values[insertAt] = segment;
+            size++;
+        }
+
+        void removeAt(int index) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            values[--size] = null;
+        }
+
+        void clear() {
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+    }
+
+    private static final class Segment {
+        final SectionColumns columns;
+        /**
+         * 包括decoration和margin，-1表示需要重新测量
+         */
+        int headerHeight = -1;
+
+        Segment(int spanCount) {
+            columns = new SectionColumns(spanCount);
+        }
+    }
+}
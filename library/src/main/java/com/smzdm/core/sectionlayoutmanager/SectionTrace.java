@@ -0,0 +1,78 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.os.Trace;
+
+import com.smzdm.core.sectionlayoutmanager.library.BuildConfig;
+
+/**
+ * 滚动和绑定路径上的trace
+ * 调用处用 BuildConfig.SECTION_TRACE 包住，false 时整段调用在编译期被消除，R8也不会保留；
+ * BuildConfig.SECTION_TRACE 为 true 的构建（profile）默认输出到 {@link #SYSTRACE}，在systrace/Perfetto中可见，
+ * 否则为 {@link #NONE}；可以通过 {@link #setTracer(Tracer)} 替换
+ *
+ * @author Rango on 2020/11/20
+ */
+public final class SectionTrace {
+    public static final String SCROLL = "SectionLayoutManager#scroll";
+    public static final String LAYOUT_SECTIONS = "SectionLayoutManager#layoutSections";
+    public static final String OBTAIN_SECTION = "SectionLayoutManager#obtainSection";
+    public static final String RECYCLE_SECTION = "SectionLayoutManager#recycleSection";
+    public static final String CLEAR_TOP = "SectionCache#clearTop";
+
+    public interface Tracer {
+        void beginSection(String name);
+
+        void endSection();
+    }
+
+    /**
+     * 不输出，默认值
+     */
+    public static final Tracer NONE = new Tracer() {
+        @Override
+        public void beginSection(String name) {
+        }
+
+        @Override
+        public void endSection() {
+        }
+    };
+
+    /**
+     * 输出到 android.os.Trace
+     */
+    public static final Tracer SYSTRACE = new Tracer() {
+        @Override
+        public void beginSection(String name) {
+            Trace.beginSection(name);
+        }
+
+        @Override
+        public void endSection() {
+            Trace.endSection();
+        }
+    };
+
+    private static Tracer tracer = BuildConfig.SECTION_TRACE ? SYSTRACE : NONE;
+
+    private SectionTrace() {
+    }
+
+    /**
+     * 替换trace的输出，BuildConfig.SECTION_TRACE 为 false 时库内部不会调用
+     */
+    public static void setTracer(Tracer tracer) {
+        if (tracer == null) {
+            throw new IllegalArgumentException("tracer == null");
+        }
+        SectionTrace.tracer = tracer;
+    }
+
+    public static void begin(String name) {
+        tracer.beginSection(name);
+    }
+
+    public static void end() {
+        tracer.endSection();
+    }
+}
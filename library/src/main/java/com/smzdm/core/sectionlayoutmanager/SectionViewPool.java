@@ -0,0 +1,132 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseIntArray;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Section专用的缓存池，通过 {@link SectionLayoutManager#setSectionViewPool(SectionViewPool)} 设置
+ * 1. Section的viewType按吸顶层数确定容量，出栈的ViewHolder不会因为超出容量被丢弃
+ * 2. 类似AsyncLayoutInflater，在后台线程提前创建Section的ViewHolder，第一次吸顶时不需要在UI线程inflate
+ * 3. 作为RecycledViewPool可以在多个RecyclerView之间共享，这些RecyclerView的adapter需要使用一致的viewType
+ * 只在UI线程访问
+ *
+ * @author Rango on 2020/11/23
+ */
+public class SectionViewPool extends RecyclerView.RecycledViewPool {
+    /**
+     * RecycledViewPool每个viewType的默认容量
+     */
+    private static final int DEFAULT_MAX_SCRAP = 5;
+
+    private static ExecutorService sDefaultExecutor;
+
+    private final Executor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Section的viewType -> 共享这个缓存池的SectionLayoutManager中最大的吸顶层数
+     */
+    private final SparseIntArray sectionDepths = new SparseIntArray();
+    /**
+     * viewType -> 已经提交到后台还没有放入缓存池的个数
+     */
+    private final SparseIntArray pending = new SparseIntArray();
+
+    public SectionViewPool() {
+        this(defaultExecutor());
+    }
+
+    /**
+     * @param executor 执行adapter.onCreateViewHolder的线程
+     */
+    public SectionViewPool(@NonNull Executor executor) {
+        this.executor = executor;
+    }
+
+    private static synchronized Executor defaultExecutor() {
+        if (sDefaultExecutor == null) {
+            sDefaultExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "SectionViewPool");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return sDefaultExecutor;
+    }
+
+    /**
+     * 登记一个Section的viewType，多个RecyclerView共享时取最大的吸顶层数
+     *
+     * @param depth 吸顶层数，即 {@link SectionLayoutManager#getMaxSectionCount()}
+     */
+    @MainThread
+    public void setSectionDepth(int viewType, int depth) {
+        if (depth <= sectionDepths.get(viewType)) {
+            return;
+        }
+        sectionDepths.put(viewType, depth);
+        setMaxRecycledViews(viewType, Math.max(DEFAULT_MAX_SCRAP, depth * 2 + 1));
+    }
+
+    /**
+     * @return 没有登记过时返回0
+     */
+    public int getSectionDepth(int viewType) {
+        return sectionDepths.get(viewType);
+    }
+
+    /**
+     * 预热的个数：吸顶的depth个，加上正在进入吸顶区域的1个
+     */
+    public int getPrewarmCount(int viewType) {
+        int depth = sectionDepths.get(viewType);
+        return depth == 0 ? 0 : depth + 1;
+    }
+
+    /**
+     * 在后台线程创建ViewHolder，补足到 {@link #getPrewarmCount(int)} 后回到UI线程放入缓存池
+     * adapter.onCreateViewHolder会在后台线程调用，只能inflate和findViewById，不能访问UI线程的状态；
+     * 创建失败时忽略，之后照常在UI线程创建；创建期间parent换了adapter时丢弃，不放入缓存池
+     *
+     * @param parent 作为onCreateViewHolder的parent，只用于生成LayoutParams
+     */
+    @MainThread
+    public void prewarm(@NonNull RecyclerView parent, int viewType) {
+        RecyclerView.Adapter<?> adapter = parent.getAdapter();
+        if (adapter == null) {
+            throw new IllegalStateException("RecyclerView has no adapter");
+        }
+        int missing = getPrewarmCount(viewType) - getRecycledViewCount(viewType) - pending.get(viewType);
+        if (missing <= 0) {
+            return;
+        }
+        pending.put(viewType, pending.get(viewType) + missing);
+        executor.execute(() -> {
+            for (int i = 0; i < missing; i++) {
+                RecyclerView.ViewHolder holder = null;
+                try {
+                    holder = adapter.createViewHolder(parent, viewType);
+                } catch (RuntimeException ignored) {
+                    //和AsyncLayoutInflater一样，交给UI线程按需创建
+                }
+                RecyclerView.ViewHolder created = holder;
+                mainHandler.post(() -> {
+                    pending.put(viewType, pending.get(viewType) - 1);
+                    if (created != null && parent.getAdapter() == adapter) {
+                        putRecycledView(created);
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.smzdm.core.sectionlayoutmanager.holders;
+
+/**
+ * 由Section的ViewHolder实现，SectionLayoutManager据此识别Section
+ * adapter实现了 {@link com.smzdm.core.sectionlayoutmanager.SectionProvider} 时不再使用
+ *
+ * @author Rango on 2020/11/6
+ */
+public interface Section {
+}
@@ -0,0 +1,259 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 每个item高100px，每10个item一个Section，共100个，列表高1000px
+ *
+ * @author Rango on 2020/11/25
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class CollapsibleSectionTest {
+    private RecyclerView rlv;
+    private SectionLayoutManager layoutManager;
+    private Adapter inner;
+    private CollapsibleSectionAdapter<RecyclerView.ViewHolder> adapter;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        rlv = new RecyclerView(context);
+        layoutManager = new SectionLayoutManager(context);
+        inner = new Adapter();
+        adapter = new CollapsibleSectionAdapter<>(inner);
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(adapter);
+        layout();
+    }
+
+    private void layout() {
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, 500, 1000);
+    }
+
+    @Test
+    public void collapse_relayoutsWithoutRebinding() {
+        //可见5..14
+        rlv.scrollBy(0, 500);
+        inner.bound.clear();
+        assertTrue(adapter.setSectionCollapsed(10, true));
+        layout();
+        assertEquals(91, adapter.getItemCount());
+        //10之后紧接着原来的20
+        assertEquals(20, adapter.toAdapterPosition(11));
+        assertEquals(11, layoutManager.findSectionPosition(11));
+        assertEquals(2, layoutManager.getSectionId(12));
+        //只绑定新进入屏幕的item，原来可见的item不重新绑定
+        assertFalse(inner.bound.contains(5));
+        assertFalse(inner.bound.contains(10));
+        assertTrue(inner.bound.contains(20));
+
+        assertTrue(adapter.toggleSection(10));
+        layout();
+        assertEquals(100, adapter.getItemCount());
+        assertEquals(20, layoutManager.findSectionPosition(20));
+        assertFalse(adapter.setSectionCollapsed(5, true));
+    }
+
+    @Test
+    public void collapsedSection_pinned() {
+        adapter.setSectionCollapsed(0, true);
+        adapter.setSectionCollapsed(10, true);
+        layout();
+        //0、10折叠后20在可见position 2，可见3..12
+        rlv.scrollBy(0, 350);
+        assertEquals(1, layoutManager.getSectionCacheSize());
+        assertEquals(2, layoutManager.findSectionPosition(layoutManager.findFirstVisibleItemPosition() - 1));
+        assertEquals(2, layoutManager.getSectionId(3));
+    }
+
+    @Test
+    public void dataSetChanged_keepsCollapsedById() {
+        adapter.setSectionCollapsed(10, true);
+        //在最前面插入一个Section，原来的Section 1 移动到21
+        inner.count = 110;
+        inner.offset = 10;
+        inner.notifyDataSetChanged();
+        layout();
+        assertTrue(adapter.isSectionCollapsed(adapter.toVisiblePosition(20)));
+        assertEquals(101, adapter.getItemCount());
+        assertEquals(RecyclerView.NO_POSITION, adapter.toVisiblePosition(25));
+    }
+
+    @Test
+    public void itemsInserted_forwardsRange() {
+        List<String> events = record();
+        inner.insert(15, 2);
+        assertEquals("[inserted 15 2]", events.toString());
+        assertEquals(102, adapter.getItemCount());
+        assertEquals(22, adapter.toAdapterPosition(22));
+        layout();
+        assertEquals(22, layoutManager.findSectionPosition(23));
+    }
+
+    @Test
+    public void itemsInsertedIntoCollapsed_notForwarded() {
+        adapter.setSectionCollapsed(10, true);
+        layout();
+        List<String> events = record();
+        inner.insert(15, 2);
+        assertTrue(events.isEmpty());
+        assertEquals(91, adapter.getItemCount());
+        assertEquals(11, adapter.toVisiblePosition(22));
+        assertTrue(adapter.isSectionCollapsed(10));
+    }
+
+    @Test
+    public void sectionsInsertedAndRemoved_updatedInPlace() {
+        adapter.setSectionCollapsed(10, true);
+        layout();
+        List<String> events = record();
+        //在最前面插入一个Section，原来的Section 1 移动到20，仍然折叠
+        inner.count = 110;
+        inner.offset = 10;
+        inner.notifyItemRangeInserted(0, 10);
+        assertEquals("[inserted 0 10]", events.toString());
+        assertEquals(101, adapter.getItemCount());
+        assertTrue(adapter.isSectionCollapsed(adapter.toVisiblePosition(20)));
+        assertEquals(RecyclerView.NO_POSITION, adapter.toVisiblePosition(25));
+
+        inner.count = 100;
+        inner.offset = 0;
+        inner.notifyItemRangeRemoved(0, 10);
+        assertEquals("[inserted 0 10, removed 0 10]", events.toString());
+        assertEquals(91, adapter.getItemCount());
+        assertTrue(adapter.isSectionCollapsed(10));
+        layout();
+        assertEquals(11, layoutManager.findSectionPosition(11));
+    }
+
+    @Test
+    public void setHasStableIds_sameValueIgnored() {
+        adapter.setHasStableIds(false);
+        assertFalse(adapter.hasStableIds());
+    }
+
+    @Test
+    public void detached_stopsObserving() {
+        assertTrue(inner.hasObservers());
+        rlv.setAdapter(null);
+        assertFalse(inner.hasObservers());
+    }
+
+    /**
+     * 记录包装后的adapter发出的通知
+     */
+    private List<String> record() {
+        List<String> events = new ArrayList<>();
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                events.add("changed");
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                events.add("inserted " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                events.add("removed " + positionStart + " " + itemCount);
+            }
+        });
+        return events;
+    }
+
+    private static class Holder extends RecyclerView.ViewHolder {
+        Holder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements SectionProvider {
+        final List<Integer> bound = new ArrayList<>();
+        int count = 100;
+        /**
+         * 前offset个item是新插入的Section，sectionId为-1
+         */
+        int offset;
+        /**
+         * insertAt开始插入了inserted个普通item，属于之前的Section
+         */
+        int insertAt;
+        int inserted;
+
+        void insert(int position, int itemCount) {
+            insertAt = position;
+            inserted = itemCount;
+            count += itemCount;
+            notifyItemRangeInserted(position, itemCount);
+        }
+
+        /**
+         * @return 插入之前的position
+         */
+        private int original(int position) {
+            return position < insertAt ? position : Math.max(insertAt - 1, position - inserted);
+        }
+
+        @Override
+        public boolean isSectionHeader(int position) {
+            if (position >= insertAt && position < insertAt + inserted) {
+                return false;
+            }
+            position = original(position);
+            return position < offset ? position == 0 : (position - offset) % 10 == 0;
+        }
+
+        @Override
+        public long getSectionId(int position) {
+            position = original(position);
+            return position < offset ? -1 : (position - offset) / 10;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return new Holder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return isSectionHeader(position) ? 0 : 1;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            bound.add(position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return count;
+        }
+    }
+}
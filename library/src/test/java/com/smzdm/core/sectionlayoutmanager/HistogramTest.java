@@ -0,0 +1,53 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Rango on 2020/11/20
+ */
+public class HistogramTest {
+
+    @Test
+    public void bucketOf() {
+        assertEquals(0, Histogram.bucketOf(-5));
+        assertEquals(0, Histogram.bucketOf(0));
+        assertEquals(1, Histogram.bucketOf(1));
+        assertEquals(2, Histogram.bucketOf(2));
+        assertEquals(2, Histogram.bucketOf(3));
+        assertEquals(3, Histogram.bucketOf(4));
+        assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void record() {
+        Histogram histogram = new Histogram();
+        histogram.record(0);
+        histogram.record(3);
+        histogram.record(1000);
+        assertEquals(3, histogram.getCount());
+        assertEquals(1003, histogram.getSum());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(1, histogram.getBucket(0));
+        assertEquals(1, histogram.getBucket(2));
+        assertEquals(1, histogram.getBucket(Histogram.bucketOf(1000)));
+    }
+
+    @Test
+    public void percentileUpperBound() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.percentileUpperBound(50));
+        for (int i = 0; i < 99; i++) {
+            histogram.record(10);
+        }
+        histogram.record(5000);
+        assertEquals(16, histogram.percentileUpperBound(50));
+        assertEquals(16, histogram.percentileUpperBound(99));
+        assertEquals(8192, histogram.percentileUpperBound(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentileUpperBound(100));
+    }
+}
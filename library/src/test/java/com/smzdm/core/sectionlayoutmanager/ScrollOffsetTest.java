@@ -0,0 +1,148 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.smzdm.core.sectionlayoutmanager.holders.Section;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Section高200px，item高100px，每10个item一个Section，共100个，内容高 10 * 200 + 90 * 100 = 11000
+ *
+ * @author Rango on 2020/11/24
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ScrollOffsetTest {
+    private static final int TYPE_SECTION = 0;
+    private static final int TYPE_ITEM = 1;
+    private static final int HEIGHT = 1000;
+
+    private Context context;
+    private RecyclerView rlv;
+    private SectionLayoutManager layoutManager;
+    private Adapter adapter;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        attach(new SectionLayoutManager(context));
+        layout();
+    }
+
+    private void attach(SectionLayoutManager manager) {
+        rlv = new RecyclerView(context);
+        layoutManager = manager;
+        adapter = new Adapter();
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(adapter);
+    }
+
+    private void layout() {
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, 500, HEIGHT);
+    }
+
+    @Test
+    public void range_exactAfterFirstLayout() {
+        assertEquals(11000, rlv.computeVerticalScrollRange());
+        assertEquals(HEIGHT, rlv.computeVerticalScrollExtent());
+        assertEquals(0, rlv.computeVerticalScrollOffset());
+    }
+
+    @Test
+    public void offset_followsScroll() {
+        int scrolled = 0;
+        for (int dy : new int[]{1234, 77, 3000, -1500, 9}) {
+            rlv.scrollBy(0, dy);
+            scrolled += dy;
+            assertEquals(scrolled, rlv.computeVerticalScrollOffset());
+        }
+        rlv.scrollBy(0, 100000);
+        assertEquals(11000 - HEIGHT, rlv.computeVerticalScrollOffset());
+    }
+
+    @Test
+    public void scrollToPositionWithOffset_exactOffset() {
+        //0..54：6个Section，49个item
+        layoutManager.scrollToPositionWithOffset(55, 30);
+        layout();
+        assertEquals(6100 - 30, rlv.computeVerticalScrollOffset());
+    }
+
+    @Test
+    public void scrollToVerticalOffset() {
+        layoutManager.scrollToVerticalOffset(6070);
+        layout();
+        assertEquals(54, layoutManager.findFirstVisibleItemPosition());
+        assertEquals(6070, rlv.computeVerticalScrollOffset());
+        assertEquals(50, layoutManager.findSectionPosition(54));
+    }
+
+    @Test
+    public void sectionViewTypes_findsSectionNotLaidOut() {
+        SectionLayoutManager manager = new SectionLayoutManager(context);
+        manager.setSectionViewTypes(TYPE_SECTION);
+        attach(manager);
+        //第一次布局就跳到55，50没有布局过
+        layoutManager.scrollToPositionWithOffset(55, 30);
+        layout();
+        assertEquals(50, layoutManager.findSectionPosition(55));
+        assertEquals(1, layoutManager.getSectionCacheSize());
+        //没有为判断Section额外创建ViewHolder
+        assertEquals(rlv.getChildCount(), adapter.created);
+    }
+
+    private static class SectionHolder extends RecyclerView.ViewHolder implements Section {
+        SectionHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class ItemHolder extends RecyclerView.ViewHolder {
+        ItemHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        int created;
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            created++;
+            View view = new View(parent.getContext());
+            int height = viewType == TYPE_SECTION ? 200 : 100;
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, height));
+            return viewType == TYPE_SECTION ? new SectionHolder(view) : new ItemHolder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return position % 10 == 0 ? TYPE_SECTION : TYPE_ITEM;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 100;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 每10个item一组，Section在组首（0、10、20...），footer在组尾（9、19、29...），
+ * 每个item高100px，共100个，列表宽500px高1000px
+ *
+ * @author Rango on 2020/11/27
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionFooterTest {
+    private RecyclerView rlv;
+    private SectionLayoutManager layoutManager;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        rlv = new RecyclerView(context);
+        layoutManager = new SectionLayoutManager(context);
+        layoutManager.setStickyFooters(true);
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(new Adapter());
+        layout();
+    }
+
+    private void layout() {
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, 500, 1000);
+    }
+
+    /**
+     * RENDER_MODE_CHILD时footer排在列表的child之后、吸顶的Section之前
+     */
+    private View footer() {
+        return rlv.getChildAt(rlv.getChildCount() - 1 - layoutManager.getSectionCacheSize());
+    }
+
+    private int footerPosition() {
+        return rlv.getChildViewHolder(footer()).getLayoutPosition();
+    }
+
+    /**
+     * @return 除去吸顶的Section之外的child个数
+     */
+    private int childCount() {
+        return rlv.getChildCount() - layoutManager.getSectionCacheSize();
+    }
+
+    @Test
+    public void footerVisible_notPinned() {
+        //9 在900~1000，完全显示，只有列表自己的0~9
+        assertEquals(10, childCount());
+        assertEquals(9, footerPosition());
+    }
+
+    @Test
+    public void scroll_pinsFooterOfLastSection() {
+        //11 在900~1000，Section 10 的下边在900，footer 19 吸附在底部
+        rlv.scrollBy(0, 200);
+        //列表的2~11和footer
+        assertEquals(11, childCount());
+        assertEquals(19, footerPosition());
+        assertEquals(900, footer().getTop());
+        assertEquals(0f, footer().getTranslationY(), 0);
+
+        //19 完全进入屏幕后不再吸附
+        rlv.scrollBy(0, 800);
+        assertEquals(10, childCount());
+        assertEquals(19, footerPosition());
+    }
+
+    @Test
+    public void section_pushesFooterDown() {
+        //Section 10 的下边在950，footer 19 被向下推出50
+        rlv.scrollBy(0, 150);
+        assertEquals(19, footerPosition());
+        assertEquals(50f, footer().getTranslationY(), 0);
+
+        rlv.scrollBy(0, 30);
+        assertEquals(20f, footer().getTranslationY(), 0);
+    }
+
+    @Test
+    public void disable_removesFooter() {
+        rlv.scrollBy(0, 150);
+        View footer = footer();
+        assertEquals(12, childCount());
+        layoutManager.setStickyFooters(false);
+        layout();
+        assertEquals(11, childCount());
+        assertEquals(0f, footer.getTranslationY(), 0);
+    }
+
+    private static class Holder extends RecyclerView.ViewHolder {
+        Holder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements SectionProvider {
+
+        @Override
+        public boolean isSectionHeader(int position) {
+            return position % 10 == 0;
+        }
+
+        @Override
+        public long getSectionId(int position) {
+            return position / 10;
+        }
+
+        @Override
+        public boolean isSectionFooter(int position) {
+            return position % 10 == 9;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return new Holder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return isSectionHeader(position) ? 0 : isSectionFooter(position) ? 2 : 1;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 100;
+        }
+    }
+}
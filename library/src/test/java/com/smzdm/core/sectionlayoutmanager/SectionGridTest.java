@@ -0,0 +1,262 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.smzdm.core.sectionlayoutmanager.holders.Section;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 3列，每个item高100px，每10个item一个Section，共100个，列表宽500px高1000px
+ *
+ * @author Rango on 2020/11/26
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionGridTest {
+    private static final int SPAN_COUNT = 3;
+
+    private Context context;
+    private RecyclerView rlv;
+    private SectionGridLayoutManager layoutManager;
+    private Adapter adapter;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        rlv = new RecyclerView(context);
+        layoutManager = new SectionGridLayoutManager(context, SPAN_COUNT);
+        adapter = new Adapter();
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(adapter);
+        layout();
+    }
+
+    private void layout() {
+        layout(rlv);
+    }
+
+    private static void layout(RecyclerView rlv) {
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, 500, 1000);
+    }
+
+    @Test
+    public void section_fullSpan() {
+        assertEquals(500, layoutManager.findViewByPosition(10).getWidth());
+        assertEquals(500 / SPAN_COUNT, layoutManager.findViewByPosition(11).getWidth());
+        //Section 0 和9个item占4行
+        assertEquals(400, layoutManager.findViewByPosition(10).getTop());
+    }
+
+    @Test
+    public void sectionInterface_fullSpanWithoutProvider() {
+        RecyclerView rlv = new RecyclerView(context);
+        SectionGridLayoutManager manager = new SectionGridLayoutManager(context, SPAN_COUNT);
+        rlv.setLayoutManager(manager);
+        rlv.setAdapter(new InterfaceAdapter());
+        layout(rlv);
+
+        //第一次计算span时还没有ViewHolder，识别出Section之后重新布局
+        assertEquals(500, manager.findViewByPosition(0).getWidth());
+        assertEquals(500, manager.findViewByPosition(10).getWidth());
+        assertEquals(500 / SPAN_COUNT, manager.findViewByPosition(11).getWidth());
+        assertEquals(400, manager.findViewByPosition(10).getTop());
+        //缓存的行号按识别后的索引重新计算
+        GridLayoutManager.SpanSizeLookup lookup = manager.getSpanSizeLookup();
+        assertEquals(0, lookup.getSpanGroupIndex(0, SPAN_COUNT));
+        assertEquals(1, lookup.getSpanGroupIndex(1, SPAN_COUNT));
+        assertEquals(4, lookup.getSpanGroupIndex(10, SPAN_COUNT));
+        assertEquals(5, lookup.getSpanGroupIndex(11, SPAN_COUNT));
+        assertEquals(0, lookup.getSpanIndex(11, SPAN_COUNT));
+    }
+
+    @Test
+    public void scroll_pinsSection() {
+        //Section 10 顶部在400，滚动450后吸顶
+        rlv.scrollBy(0, 450);
+        assertEquals(1, layoutManager.getSectionCacheSize());
+        assertEquals(10, layoutManager.findSectionPosition(12));
+        assertEquals(10, layoutManager.getSectionId(12));
+    }
+
+    @Test
+    public void spanIndex_uniform() {
+        assertSameAsDefault();
+    }
+
+    @Test
+    public void spanIndex_itemLookup() {
+        layoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return adapter.spanSizes.get(position);
+            }
+        });
+        layout();
+        assertSameAsDefault();
+
+        //第2段中间插入10个item
+        adapter.headers.addAll(25, Collections.nCopies(10, false));
+        adapter.spanSizes.addAll(25, Collections.nCopies(10, 2));
+        adapter.notifyItemRangeInserted(25, 10);
+        layout();
+        assertSameAsDefault();
+
+        //移除Section 10，第0段和第1段合并
+        adapter.headers.subList(8, 20).clear();
+        adapter.spanSizes.subList(8, 20).clear();
+        adapter.notifyItemRangeRemoved(8, 12);
+        layout();
+        assertSameAsDefault();
+    }
+
+    @Test
+    public void spanIndex_headerChanged() {
+        layoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return adapter.spanSizes.get(position);
+            }
+        });
+        layout();
+        //建立所有段的span index表
+        assertSameAsDefault();
+
+        //Section 20 变成普通item，第1段延长到29
+        adapter.headers.set(20, false);
+        adapter.notifyItemChanged(20);
+        layout();
+        assertSameAsDefault();
+
+        //普通item 25 变成Section，第1段缩短
+        adapter.headers.set(25, true);
+        adapter.notifyItemChanged(25);
+        layout();
+        assertSameAsDefault();
+    }
+
+    /**
+     * 与SpanSizeLookup默认的逐个累加结果一致
+     */
+    private void assertSameAsDefault() {
+        GridLayoutManager.SpanSizeLookup lookup = layoutManager.getSpanSizeLookup();
+        GridLayoutManager.SpanSizeLookup expected = new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return lookup.getSpanSize(position);
+            }
+        };
+        for (int position = 0; position < adapter.getItemCount(); position++) {
+            assertEquals("span index " + position, expected.getSpanIndex(position, SPAN_COUNT),
+                    lookup.getSpanIndex(position, SPAN_COUNT));
+            assertEquals("span group " + position, expected.getSpanGroupIndex(position, SPAN_COUNT),
+                    lookup.getSpanGroupIndex(position, SPAN_COUNT));
+        }
+    }
+
+    private static class Holder extends RecyclerView.ViewHolder {
+        Holder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class SectionHolder extends RecyclerView.ViewHolder implements Section {
+        SectionHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    /**
+     * 不实现SectionProvider，Section由ViewHolder实现 {@link Section} 识别
+     */
+    private static class InterfaceAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return viewType == 0 ? new SectionHolder(view) : new Holder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return position % 10 == 0 ? 0 : 1;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 100;
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements SectionProvider {
+        final List<Boolean> headers = new ArrayList<>();
+        /**
+         * 非Section的span size，跟随item一起插入、移除
+         */
+        final List<Integer> spanSizes = new ArrayList<>();
+
+        Adapter() {
+            for (int position = 0; position < 100; position++) {
+                headers.add(position % 10 == 0);
+                spanSizes.add(position % 4 == 1 ? 2 : 1);
+            }
+        }
+
+        @Override
+        public boolean isSectionHeader(int position) {
+            return headers.get(position);
+        }
+
+        @Override
+        public long getSectionId(int position) {
+            return position;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return new Holder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return isSectionHeader(position) ? 0 : 1;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return headers.size();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 横向列表，每个item宽100px，每10个item一个Section，共100个，列表宽500px高300px
+ *
+ * @author Rango on 2020/11/27
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionHorizontalTest {
+    private RecyclerView rlv;
+    private SectionLayoutManager layoutManager;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        rlv = new RecyclerView(context);
+        layoutManager = new SectionLayoutManager(context, RecyclerView.HORIZONTAL, false);
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(new Adapter());
+        layout();
+    }
+
+    private void layout() {
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(300, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, 500, 300);
+    }
+
+    /**
+     * RENDER_MODE_CHILD时吸顶的Section排在最后
+     */
+    private View pinned() {
+        return rlv.getChildAt(rlv.getChildCount() - 1);
+    }
+
+    @Test
+    public void scroll_pinsSectionAtLeft() {
+        rlv.scrollBy(150, 0);
+        assertEquals(1, layoutManager.getSectionCacheSize());
+        View pinned = pinned();
+        assertEquals(0, rlv.getChildViewHolder(pinned).getLayoutPosition());
+        assertEquals(0, pinned.getLeft());
+        assertEquals(0, pinned.getTop());
+        assertEquals(300, pinned.getHeight());
+
+        rlv.scrollBy(-150, 0);
+        assertEquals(0, layoutManager.getSectionCacheSize());
+    }
+
+    @Test
+    public void nextSection_pushesToLeft() {
+        //Section 10 的左边在50，吸顶的Section 0 被向左推出50
+        rlv.scrollBy(950, 0);
+        View pinned = pinned();
+        assertEquals(0, rlv.getChildViewHolder(pinned).getLayoutPosition());
+        assertEquals(-50f, pinned.getTranslationX(), 0);
+        assertEquals(0f, pinned.getTranslationY(), 0);
+
+        //Section 10 越过左边后替换Section 0
+        rlv.scrollBy(60, 0);
+        assertEquals(10, rlv.getChildViewHolder(pinned()).getLayoutPosition());
+        assertEquals(0f, pinned().getTranslationX(), 0);
+    }
+
+    @Test
+    public void orientationChanged_resetsPinned() {
+        rlv.scrollBy(950, 0);
+        View pinned = pinned();
+        layoutManager.setOrientation(RecyclerView.VERTICAL);
+        layout();
+        assertEquals(0f, pinned.getTranslationX(), 0);
+    }
+
+    private static class Holder extends RecyclerView.ViewHolder {
+        Holder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements SectionProvider {
+
+        @Override
+        public boolean isSectionHeader(int position) {
+            return position % 10 == 0;
+        }
+
+        @Override
+        public long getSectionId(int position) {
+            return position / 10;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(100, ViewGroup.LayoutParams.MATCH_PARENT));
+            return new Holder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return isSectionHeader(position) ? 0 : 1;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 100;
+        }
+    }
+}
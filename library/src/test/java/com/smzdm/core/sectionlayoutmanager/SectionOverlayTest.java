@@ -0,0 +1,147 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * RENDER_MODE_OVERLAY：每10个item一组，Section在组首（0、10、20...），
+ * 每个item高100px，共100个，列表宽500px高1000px
+ *
+ * @author Rango on 2020/11/27
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionOverlayTest {
+    private RecyclerView rlv;
+    private SectionLayoutManager layoutManager;
+    private Adapter adapter;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        rlv = new RecyclerView(context);
+        layoutManager = new SectionLayoutManager(context);
+        layoutManager.setRenderMode(SectionLayoutManager.RENDER_MODE_OVERLAY);
+        rlv.setLayoutManager(layoutManager);
+        adapter = new Adapter();
+        rlv.setAdapter(adapter);
+        layout();
+    }
+
+    private void layout() {
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, 500, 1000);
+    }
+
+    /**
+     * @return 最后一次绑定到position的itemView，吸顶的Section不是RecyclerView的child，不能通过findViewByPosition得到
+     */
+    private View bound(int position) {
+        return adapter.bound.get(position).itemView;
+    }
+
+    @Test
+    public void scroll_pinsSectionInOverlay() {
+        rlv.scrollBy(0, 150);
+        View section = bound(0);
+        //列表自己的1~11，Section 0 在ViewGroupOverlay中
+        assertEquals(11, rlv.getChildCount());
+        assertEquals(1, layoutManager.getSectionCacheSize());
+        assertNull(layoutManager.findViewByPosition(0));
+        assertNotNull(section.getParent());
+        assertFalse(section.getParent() instanceof RecyclerView);
+        assertEquals(0, section.getTop());
+        assertEquals(500, section.getWidth());
+        assertSame(adapter.bound.get(0), layoutManager.getViewHolderByView(section));
+    }
+
+    @Test
+    public void pushOff_onlyTranslates() {
+        rlv.scrollBy(0, 920);
+        View section = bound(0);
+        //Section 10 的顶部在80，Section 0 被向上推出20，不重新layout
+        assertEquals(-20f, section.getTranslationY(), 0);
+        assertEquals(0, section.getTop());
+
+        //Section 10 的顶部在-20，入栈，Section 0 交还给Recycler之前从overlay中移除
+        rlv.scrollBy(0, 100);
+        assertNull(section.getParent());
+        assertEquals(0f, section.getTranslationY(), 0);
+        View next = bound(10);
+        assertFalse(next.getParent() instanceof RecyclerView);
+        assertEquals(0, next.getTop());
+    }
+
+    @Test
+    public void renderModeChanged_movesSectionBackToChildren() {
+        rlv.scrollBy(0, 150);
+        layoutManager.setRenderMode(SectionLayoutManager.RENDER_MODE_CHILD);
+        layout();
+        //overlay中的Section先交还给Recycler，再作为child重新获取
+        assertSame(rlv, bound(0).getParent());
+        //列表自己的1~11和吸顶的Section 0
+        assertEquals(12, rlv.getChildCount());
+    }
+
+    private static class Holder extends RecyclerView.ViewHolder {
+        Holder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements SectionProvider {
+        final SparseArray<RecyclerView.ViewHolder> bound = new SparseArray<>();
+
+        @Override
+        public boolean isSectionHeader(int position) {
+            return position % 10 == 0;
+        }
+
+        @Override
+        public long getSectionId(int position) {
+            return position / 10;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return new Holder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return isSectionHeader(position) ? 0 : 1;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            bound.put(position, holder);
+        }
+
+        @Override
+        public int getItemCount() {
+            return 100;
+        }
+    }
+}
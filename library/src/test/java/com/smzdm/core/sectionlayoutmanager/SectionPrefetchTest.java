@@ -0,0 +1,134 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.util.SparseIntArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.smzdm.core.sectionlayoutmanager.holders.Section;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 每个item高100px，每10个item一个Section，列表高1000px
+ *
+ * @author Rango on 2020/11/23
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionPrefetchTest {
+    private static final int ITEM_HEIGHT = 100;
+    private static final int HEIGHT = 1000;
+    private static final int SECTION_INTERVAL = 10;
+
+    private RecyclerView rlv;
+    private SectionLayoutManager layoutManager;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        rlv = new RecyclerView(context);
+        layoutManager = new SectionLayoutManager(context);
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(new Adapter());
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, HEIGHT, HEIGHT);
+    }
+
+    @Test
+    public void adjacentPrefetch_ignoresPinnedChild() {
+        //0吸顶，可见2..12
+        rlv.scrollBy(0, 250);
+        SparseIntArray prefetch = collect(1);
+        assertEquals(50, prefetch.get(13, -1));
+        assertEquals(-1, prefetch.get(1, -1));
+    }
+
+    @Test
+    public void nextSection_prefetchedWithinLookahead() {
+        rlv.scrollBy(0, 250);
+        //到20的距离 = 50 + 7 * 100
+        assertEquals(750, collect(200).get(20, -1));
+        assertEquals(-1, collect(100).get(20, -1));
+    }
+
+    @Test
+    public void rebuiltSection_prefetchedWhenScrollingBack() {
+        //20吸顶，可见24..34，20在列表中的顶部为-450
+        rlv.scrollBy(0, 2450);
+        assertEquals(20, layoutManager.findSectionPosition(layoutManager.findFirstVisibleItemPosition() - 1));
+        SparseIntArray prefetch = collect(-200);
+        assertEquals(450, prefetch.get(10, -1));
+        //20已经吸顶，列表中的那一份不预取
+        assertEquals(-1, prefetch.get(20, -1));
+        assertTrue(collect(-100).indexOfKey(10) < 0);
+    }
+
+    private SparseIntArray collect(int dy) {
+        SparseIntArray positions = new SparseIntArray();
+        layoutManager.collectAdjacentPrefetchPositions(0, dy, state(),
+                (layoutPosition, pixelDistance) -> positions.put(layoutPosition, pixelDistance));
+        return positions;
+    }
+
+    private RecyclerView.State state() {
+        try {
+            Field field = RecyclerView.class.getDeclaredField("mState");
+            field.setAccessible(true);
+            return (RecyclerView.State) field.get(rlv);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static class SectionHolder extends RecyclerView.ViewHolder implements Section {
+        SectionHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class ItemHolder extends RecyclerView.ViewHolder {
+        ItemHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ITEM_HEIGHT));
+            return viewType == 0 ? new SectionHolder(view) : new ItemHolder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return position % SECTION_INTERVAL == 0 ? 0 : 1;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 1000;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * adapter实现SectionProvider，ViewHolder不实现Section
+ *
+ * @author Rango on 2020/11/24
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionProviderTest {
+    private static final int TYPE_SECTION = 0;
+    private static final int TYPE_ITEM = 1;
+
+    private RecyclerView rlv;
+    private SectionLayoutManager layoutManager;
+    private Adapter adapter;
+    private final List<RecyclerView.ViewHolder> recycled = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        rlv = new RecyclerView(context);
+        layoutManager = new SectionLayoutManager(context);
+        adapter = new Adapter();
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(adapter);
+        rlv.setRecyclerListener(recycled::add);
+        layout();
+    }
+
+    private void layout() {
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, 500, 1000);
+    }
+
+    /**
+     * RENDER_MODE_CHILD时吸顶的Section排在最后
+     */
+    private RecyclerView.ViewHolder pinned() {
+        return rlv.getChildViewHolder(rlv.getChildAt(rlv.getChildCount() - 1));
+    }
+
+    @Test
+    public void index_builtFromProvider() {
+        assertEquals(20, layoutManager.findSectionPosition(25));
+        assertEquals(2, layoutManager.getSectionId(25));
+        //没有为判断Section额外创建ViewHolder
+        assertEquals(rlv.getChildCount(), adapter.created);
+
+        rlv.scrollBy(0, 150);
+        assertEquals(1, layoutManager.getSectionCacheSize());
+        assertEquals(0, pinned().getLayoutPosition());
+    }
+
+    @Test
+    public void findVisible_ignoresPinnedChild() {
+        //0吸顶，列表中可见1..11
+        rlv.scrollBy(0, 150);
+        assertEquals(0, pinned().getLayoutPosition());
+        assertEquals(1, layoutManager.findFirstVisibleItemPosition());
+        assertEquals(2, layoutManager.findFirstCompletelyVisibleItemPosition());
+        assertEquals(11, layoutManager.findLastVisibleItemPosition());
+        assertEquals(10, layoutManager.findLastCompletelyVisibleItemPosition());
+    }
+
+    @Test
+    public void estimatedScrollbar_ignoresPinnedChild() {
+        layoutManager.setSmoothScrollbarEnabled(false);
+        rlv.scrollBy(0, 150);
+        //按完全可见的2..10估算
+        assertEquals(2, rlv.computeVerticalScrollOffset());
+        assertEquals(9, rlv.computeVerticalScrollExtent());
+        assertEquals(100, rlv.computeVerticalScrollRange());
+    }
+
+    @Test
+    public void dataSetChanged_keepsSectionWithSameId() {
+        rlv.scrollBy(0, 150);
+        RecyclerView.ViewHolder pinned = pinned();
+        int binds = adapter.bound;
+
+        adapter.notifyDataSetChanged();
+        layout();
+        assertSame(pinned, pinned());
+        assertFalse(recycled.contains(pinned));
+        assertTrue(adapter.bound > binds);
+    }
+
+    @Test
+    public void dataSetChanged_dropsSectionWithNewId() {
+        rlv.scrollBy(0, 150);
+        RecyclerView.ViewHolder pinned = pinned();
+
+        adapter.idOffset = 100;
+        adapter.notifyDataSetChanged();
+        layout();
+        assertTrue(recycled.contains(pinned));
+        assertEquals(1, layoutManager.getSectionCacheSize());
+        assertEquals(100, layoutManager.getSectionId(1));
+    }
+
+    @Test
+    public void itemChanged_sectionAbovePinnedRebuildsStack() {
+        layoutManager.setMaxSectionCount(2);
+        layout();
+        //0、10吸顶，可见13..
+        rlv.scrollBy(0, 1350);
+        assertArrayEquals(new int[]{0, 10}, pinnedPositions());
+
+        //0和10之间的5变成Section
+        adapter.extraSection = 5;
+        adapter.notifyItemChanged(5);
+        layout();
+        assertEquals(5, layoutManager.findSectionPosition(7));
+        assertArrayEquals(new int[]{5, 10}, pinnedPositions());
+    }
+
+    /**
+     * RENDER_MODE_CHILD时吸顶的Section排在最后，按position排序
+     */
+    private int[] pinnedPositions() {
+        int count = layoutManager.getSectionCacheSize();
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = rlv.getChildViewHolder(rlv.getChildAt(rlv.getChildCount() - count + i)).getLayoutPosition();
+        }
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    private static class Holder extends RecyclerView.ViewHolder {
+        Holder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements SectionProvider {
+        int created;
+        int bound;
+        long idOffset;
+        /**
+         * 额外的Section，-1表示没有
+         */
+        int extraSection = -1;
+
+        @Override
+        public boolean isSectionHeader(int position) {
+            return position % 10 == 0 || position == extraSection;
+        }
+
+        @Override
+        public long getSectionId(int position) {
+            return position == extraSection ? 1000 + idOffset : position / 10 + idOffset;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            created++;
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return new Holder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return isSectionHeader(position) ? TYPE_SECTION : TYPE_ITEM;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            bound++;
+        }
+
+        @Override
+        public int getItemCount() {
+            return 100;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * reverseLayout的聊天列表：position 0在最下面，每10个item一组，header是组内position最大的item（9、19、29...），
+ * 每个item高100px，共100个，列表宽500px高1000px
+ *
+ * @author Rango on 2020/11/27
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionReverseLayoutTest {
+    private RecyclerView rlv;
+    private SectionLayoutManager layoutManager;
+    private Adapter adapter;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        rlv = new RecyclerView(context);
+        layoutManager = new SectionLayoutManager(context, RecyclerView.VERTICAL, true);
+        adapter = new Adapter();
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(adapter);
+        layout();
+    }
+
+    private void layout() {
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, 500, 1000);
+    }
+
+    /**
+     * RENDER_MODE_CHILD时吸顶的Section排在最后
+     */
+    private View pinned() {
+        return rlv.getChildAt(rlv.getChildCount() - 1);
+    }
+
+    private int pinnedPosition() {
+        return rlv.getChildViewHolder(pinned()).getLayoutPosition();
+    }
+
+    @Test
+    public void findSectionPosition_headerEndsGroup() {
+        assertEquals(9, layoutManager.findSectionPosition(0));
+        assertEquals(9, layoutManager.findSectionPosition(9));
+        assertEquals(19, layoutManager.findSectionPosition(10));
+        assertEquals(100 - 19, layoutManager.getSectionId(15));
+    }
+
+    @Test
+    public void scrollToOlder_pinsGroupAbove() {
+        //向上翻看更早的消息：10 的顶部在-50，9 在50，把吸顶的19向上推出50
+        rlv.scrollBy(0, -50);
+        assertEquals(1, layoutManager.getSectionCacheSize());
+        assertEquals(19, pinnedPosition());
+        assertEquals(0, pinned().getTop());
+        assertEquals(-50f, pinned().getTranslationY(), 0);
+
+        //19 的顶部在50，29 吸顶
+        rlv.scrollBy(0, -1000);
+        assertEquals(29, pinnedPosition());
+        assertEquals(-50f, pinned().getTranslationY(), 0);
+
+        rlv.scrollBy(0, 1000);
+        assertEquals(19, pinnedPosition());
+        assertEquals(1, layoutManager.getSectionCacheSize());
+    }
+
+    @Test
+    public void newMessage_keepsPinnedHeader() {
+        rlv.scrollBy(0, -150);
+        View pinned = pinned();
+        assertEquals(19, pinnedPosition());
+        assertEquals(0f, pinned.getTranslationY(), 0);
+        adapter.bound.clear();
+
+        //最新的一组收到新消息
+        adapter.headers.add(0, false);
+        adapter.notifyItemInserted(0);
+        layout();
+        assertSame(pinned, pinned());
+        assertEquals(20, pinnedPosition());
+        assertFalse(adapter.bound.contains(20));
+        assertEquals(10, layoutManager.findSectionPosition(0));
+    }
+
+    private static class Holder extends RecyclerView.ViewHolder {
+        Holder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements SectionProvider {
+        final List<Boolean> headers = new ArrayList<>();
+        final List<Integer> bound = new ArrayList<>();
+
+        Adapter() {
+            for (int position = 0; position < 100; position++) {
+                headers.add(position % 10 == 9);
+            }
+        }
+
+        @Override
+        public boolean isSectionHeader(int position) {
+            return headers.get(position);
+        }
+
+        @Override
+        public long getSectionId(int position) {
+            //从最早的一组开始编号，插入新消息后不变
+            return headers.size() - position;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return new Holder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return isSectionHeader(position) ? 0 : 1;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            bound.add(position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return headers.size();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.os.Parcel;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 2列，每10个item一个Section，Section高100px，item高100/150/200px，共100个，列表宽500px高1000px
+ *
+ * @author Rango on 2020/11/27
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionStaggeredGridTest {
+    private RecyclerView rlv;
+    private SectionStaggeredGridLayoutManager layoutManager;
+    private Adapter adapter;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        rlv = new RecyclerView(context);
+        layoutManager = new SectionStaggeredGridLayoutManager(2);
+        adapter = new Adapter();
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(adapter);
+        layout();
+    }
+
+    private void layout() {
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, 500, 1000);
+    }
+
+    @Test
+    public void section_restartsColumns() {
+        //1..9 的高度 150,200,100,150,200,100,150,200,100，最高的一列到700
+        View section = layoutManager.findViewByPosition(10);
+        assertNotNull(section);
+        assertEquals(800, section.getTop());
+        assertEquals(500, section.getWidth());
+        //Section之后重新从第0列开始
+        View first = layoutManager.findViewByPosition(11);
+        assertEquals(0, first.getLeft());
+        assertEquals(900, first.getTop());
+        assertEquals(250, first.getWidth());
+        assertEquals(250, layoutManager.findViewByPosition(12).getLeft());
+        assertEquals(900, layoutManager.findViewByPosition(12).getTop());
+    }
+
+    @Test
+    public void scroll_pinsSection() {
+        rlv.scrollBy(0, 850);
+        assertEquals(1, layoutManager.getSectionCacheSize());
+        assertEquals(10, layoutManager.findSectionPosition(layoutManager.findFirstVisibleItemPosition()));
+        rlv.scrollBy(0, -850);
+        assertEquals(0, layoutManager.findFirstVisibleItemPosition());
+        assertEquals(0, layoutManager.findViewByPosition(0).getTop());
+    }
+
+    @Test
+    public void jump_placesOnlyTargetSection() {
+        adapter.bound.clear();
+        layoutManager.scrollToPosition(55);
+        layout();
+        assertEquals(0, layoutManager.findViewByPosition(55).getTop());
+        for (int position : adapter.bound) {
+            assertTrue("bound " + position, position >= 50);
+        }
+        //回滚到上一个Section时只测量上一个Section
+        rlv.scrollBy(0, -1000);
+        for (int position : adapter.bound) {
+            assertTrue("bound " + position, position >= 40);
+        }
+        assertFalse(adapter.bound.contains(39));
+    }
+
+    @Test
+    public void jump_sameLayoutAsScrolling() {
+        layoutManager.scrollToPosition(50);
+        layout();
+        int[] lefts = new int[10];
+        int[] tops = new int[10];
+        int sectionTop = layoutManager.findViewByPosition(50).getTop();
+        for (int i = 1; i < 10; i++) {
+            View child = layoutManager.findViewByPosition(50 + i);
+            lefts[i] = child.getLeft();
+            tops[i] = child.getTop() - sectionTop;
+        }
+
+        layoutManager.scrollToPosition(0);
+        layout();
+        while (layoutManager.findViewByPosition(59) == null || layoutManager.findViewByPosition(50).getTop() > 0) {
+            rlv.scrollBy(0, 100);
+        }
+        sectionTop = layoutManager.findViewByPosition(50).getTop();
+        for (int i = 1; i < 10; i++) {
+            View child = layoutManager.findViewByPosition(50 + i);
+            assertEquals(lefts[i], child.getLeft());
+            assertEquals(tops[i], child.getTop() - sectionTop);
+        }
+    }
+
+    /**
+     * 很长的Section：跳转到中间时从目标开始放置，回滚时只测量露出的item
+     */
+    @Test
+    public void jump_longSectionPlacesFromAnchor() {
+        adapter.setSectionSize(500, 1000);
+        layout();
+        adapter.bound.clear();
+        layoutManager.scrollToPosition(400);
+        layout();
+        assertEquals(0, layoutManager.findViewByPosition(400).getTop());
+        for (int position : adapter.bound) {
+            assertTrue("bound " + position, position == 0 || position >= 400);
+        }
+        for (int i = 0; i < 5; i++) {
+            adapter.bound.clear();
+            rlv.scrollBy(0, -200);
+            assertTrue("bound " + adapter.bound, adapter.bound.size() <= 8);
+        }
+        assertNotNull(layoutManager.findViewByPosition(390));
+    }
+
+    @Test
+    public void jump_longSectionSettlesAtTop() {
+        adapter.setSectionSize(100, 200);
+        layout();
+        layoutManager.scrollToPosition(60);
+        layout();
+        for (int i = 0; i < 100; i++) {
+            rlv.scrollBy(0, -100);
+        }
+        //回到顶部后与从顶部开始放置的位置一致，没有空隙
+        ColumnIndex expected = new ColumnIndex(2);
+        for (int position = 1; position < 20; position++) {
+            expected.place(100 + position % 3 * 50);
+        }
+        for (int position = 1; position < 20; position++) {
+            View child = layoutManager.findViewByPosition(position);
+            if (child == null) {
+                continue;
+            }
+            assertEquals(expected.columnAt(position - 1) * 250, child.getLeft());
+            assertEquals(100 + expected.topAt(position - 1), child.getTop());
+        }
+        assertEquals(0, layoutManager.findViewByPosition(1).getLeft());
+        assertEquals(100, layoutManager.findViewByPosition(1).getTop());
+    }
+
+    @Test
+    public void savedState_restoresColumnsWithoutPrefix() {
+        adapter.setSectionSize(100, 200);
+        layout();
+        rlv.scrollBy(0, 5000);
+        int first = layoutManager.findFirstVisibleItemPosition();
+        List<int[]> children = new ArrayList<>();
+        for (int position = first; position < first + 10; position++) {
+            View child = layoutManager.findViewByPosition(position);
+            children.add(new int[]{position, child.getLeft(), child.getTop()});
+        }
+        Parcel parcel = Parcel.obtain();
+        layoutManager.onSaveInstanceState().writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        SectionStaggeredGridLayoutManager.SavedState state =
+                SectionStaggeredGridLayoutManager.SavedState.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+
+        rlv = new RecyclerView(ApplicationProvider.getApplicationContext());
+        layoutManager = new SectionStaggeredGridLayoutManager(2);
+        adapter = new Adapter();
+        adapter.setSectionSize(100, 200);
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(adapter);
+        layoutManager.onRestoreInstanceState(state);
+        layout();
+        for (int[] child : children) {
+            View view = layoutManager.findViewByPosition(child[0]);
+            assertEquals(child[1], view.getLeft());
+            assertEquals(child[2], view.getTop());
+        }
+        for (int position : adapter.bound) {
+            assertTrue("bound " + position, position == 0 || position >= first);
+        }
+    }
+
+    @Test
+    public void itemChanged_replacesFromChangedItem() {
+        adapter.extra = 7;
+        adapter.notifyItemChanged(7);
+        layout();
+        //7 变高50后，9 仍在第0列，下移50
+        assertEquals(200, layoutManager.findViewByPosition(7).getHeight());
+        assertEquals(750, layoutManager.findViewByPosition(9).getTop());
+        assertEquals(0, layoutManager.findViewByPosition(9).getLeft());
+        assertEquals(850, layoutManager.findViewByPosition(10).getTop());
+    }
+
+    private static class Holder extends RecyclerView.ViewHolder {
+        Holder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements SectionProvider {
+        final List<Integer> bound = new ArrayList<>();
+        /**
+         * 这个position的item额外高50px
+         */
+        int extra = -1;
+        int sectionSize = 10;
+        int itemCount = 100;
+
+        void setSectionSize(int sectionSize, int itemCount) {
+            this.sectionSize = sectionSize;
+            this.itemCount = itemCount;
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public boolean isSectionHeader(int position) {
+            return position % sectionSize == 0;
+        }
+
+        @Override
+        public long getSectionId(int position) {
+            return position / sectionSize;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return new Holder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return isSectionHeader(position) ? 0 : 1;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            bound.add(position);
+            int height = isSectionHeader(position) ? 100 : 100 + position % 3 * 50;
+            holder.itemView.getLayoutParams().height = position == extra ? height + 50 : height;
+        }
+
+        @Override
+        public int getItemCount() {
+            return itemCount;
+        }
+    }
+}
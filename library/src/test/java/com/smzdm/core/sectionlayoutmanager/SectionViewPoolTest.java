@@ -0,0 +1,199 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import android.content.Context;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.smzdm.core.sectionlayoutmanager.holders.Section;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * @author Rango on 2020/11/23
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SectionViewPoolTest {
+    private static final int TYPE_SECTION = 0;
+    private static final int TYPE_ITEM = 1;
+
+    /**
+     * 在新线程中执行并等待结束
+     */
+    private static final Executor BACKGROUND = command -> {
+        Thread thread = new Thread(command);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    };
+
+    private Context context;
+    private Adapter adapter;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        adapter = new Adapter();
+    }
+
+    @Test
+    public void sectionDepth_keepsMaximum() {
+        SectionViewPool pool = new SectionViewPool(BACKGROUND);
+        pool.setSectionDepth(TYPE_SECTION, 3);
+        pool.setSectionDepth(TYPE_SECTION, 1);
+        assertEquals(3, pool.getSectionDepth(TYPE_SECTION));
+        assertEquals(4, pool.getPrewarmCount(TYPE_SECTION));
+        assertEquals(0, pool.getPrewarmCount(TYPE_ITEM));
+    }
+
+    @Test
+    public void prewarm_createsOffMainThread() {
+        RecyclerView rlv = new RecyclerView(context);
+        rlv.setAdapter(adapter);
+        SectionViewPool pool = new SectionViewPool(BACKGROUND);
+        pool.setSectionDepth(TYPE_SECTION, 2);
+        pool.prewarm(rlv, TYPE_SECTION);
+        //回到主线程之前不会重复提交
+        pool.prewarm(rlv, TYPE_SECTION);
+        assertEquals(0, pool.getRecycledViewCount(TYPE_SECTION));
+
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(3, pool.getRecycledViewCount(TYPE_SECTION));
+        assertEquals(3, adapter.createdThreads.size());
+        for (Thread thread : adapter.createdThreads) {
+            assertFalse(thread == Looper.getMainLooper().getThread());
+        }
+    }
+
+    @Test
+    public void prewarm_discardedAfterAdapterChanged() {
+        RecyclerView rlv = new RecyclerView(context);
+        rlv.setAdapter(adapter);
+        List<Runnable> tasks = new ArrayList<>();
+        SectionViewPool pool = new SectionViewPool(tasks::add);
+        rlv.setRecycledViewPool(pool);
+        pool.setSectionDepth(TYPE_SECTION, 2);
+        pool.prewarm(rlv, TYPE_SECTION);
+
+        //创建完成之前换了adapter
+        rlv.setAdapter(new Adapter());
+        for (Runnable task : tasks) {
+            BACKGROUND.execute(task);
+        }
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(3, adapter.createdThreads.size());
+        assertEquals(0, pool.getRecycledViewCount(TYPE_SECTION));
+    }
+
+    @Test
+    public void layoutManager_installsAndPrewarmsPool() {
+        RecyclerView first = new RecyclerView(context);
+        RecyclerView second = new RecyclerView(context);
+        SectionViewPool pool = new SectionViewPool(BACKGROUND);
+        SectionLayoutManager firstManager = layout(first, pool, 1);
+        SectionLayoutManager secondManager = layout(second, pool, 3);
+
+        assertSame(pool, first.getRecycledViewPool());
+        assertSame(pool, second.getRecycledViewPool());
+        assertEquals(3, pool.getSectionDepth(TYPE_SECTION));
+        assertEquals(0, pool.getSectionDepth(TYPE_ITEM));
+
+        shadowOf(Looper.getMainLooper()).idle();
+        //第一次吸顶从缓存池获取，不在UI线程创建
+        int created = adapter.createdOnMainThread();
+        first.scrollBy(0, 150);
+        second.scrollBy(0, 150);
+        assertEquals(1, firstManager.getSectionCacheSize());
+        assertEquals(1, secondManager.getSectionCacheSize());
+        assertEquals(created, adapter.createdOnMainThread());
+    }
+
+    private SectionLayoutManager layout(RecyclerView rlv, SectionViewPool pool, int depth) {
+        SectionLayoutManager layoutManager = new SectionLayoutManager(context);
+        layoutManager.setMaxSectionCount(depth);
+        layoutManager.setSectionViewPool(pool);
+        rlv.setLayoutManager(layoutManager);
+        rlv.setAdapter(adapter);
+        rlv.measure(View.MeasureSpec.makeMeasureSpec(500, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY));
+        rlv.layout(0, 0, 500, 1000);
+        return layoutManager;
+    }
+
+    private static class SectionHolder extends RecyclerView.ViewHolder implements Section {
+        SectionHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class ItemHolder extends RecyclerView.ViewHolder {
+        ItemHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class Adapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        /**
+         * 创建Section的线程
+         */
+        final List<Thread> createdThreads = new ArrayList<>();
+
+        synchronized int createdOnMainThread() {
+            int count = 0;
+            for (Thread thread : createdThreads) {
+                if (thread == Looper.getMainLooper().getThread()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            if (viewType == TYPE_SECTION) {
+                synchronized (this) {
+                    createdThreads.add(Thread.currentThread());
+                }
+            }
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return viewType == TYPE_SECTION ? new SectionHolder(view) : new ItemHolder(view);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return position % 10 == 0 ? TYPE_SECTION : TYPE_ITEM;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 100;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.smzdm.core.sectionlayoutmanager;
 
 import android.os.Bundle;
-import android.util.Log;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
@@ -10,9 +9,9 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.smzdm.core.sectionlayoutmanager.holders.ItemViewHolder;
 import com.smzdm.core.sectionlayoutmanager.holders.SectionViewHolder;
+import com.smzdm.core.sectionlayoutmanager.library.BuildConfig;
 
 public class MainActivity extends AppCompatActivity {
-    static final String tag = "MainActivity";
     private RecyclerView rlv;
 
     @Override
@@ -20,25 +19,33 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
         rlv = findViewById(R.id.rlv);
-        rlv.setAdapter(new MyAdapter());
-        rlv.setLayoutManager(new SectionLayoutManager(this));
-        findViewById(R.id.btn).setOnClickListener(v ->
-//                rlv.getAdapter().notifyDataSetChanged()
-                        rlv.scrollToPosition(10)
-        );
+        CollapsibleSectionAdapter<RecyclerView.ViewHolder> adapter = new CollapsibleSectionAdapter<>(new MyAdapter());
+        rlv.setAdapter(adapter);
+        SectionLayoutManager layoutManager = new SectionLayoutManager(this);
+        layoutManager.setSectionViewPool(new SectionViewPool());
+        rlv.setLayoutManager(layoutManager);
+        findViewById(R.id.btn).setOnClickListener(v -> adapter.toggleSection(0));
     }
 
-    static class MyAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
-        SectionViewHolder sectionViewHolder;
+    static class MyAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements SectionProvider {
 
+        @Override
+        public boolean isSectionHeader(int position) {
+            return position % 20 == 0;
+        }
+
+        @Override
+        public long getSectionId(int position) {
+            return position / 20;
+        }
+
+        /**
+         * Section的ViewHolder会被SectionViewPool在后台线程预先创建，这里只能inflate
+         */
         @NonNull
         @Override
         public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
             if (viewType == 0) {
-                if (sectionViewHolder == null) {
-                    sectionViewHolder = new SectionViewHolder(parent);
-                }
-                boolean b = sectionViewHolder.itemView.isAttachedToWindow();
                 return new SectionViewHolder(parent);
             }
             return new ItemViewHolder(parent);
@@ -46,17 +53,23 @@ public class MainActivity extends AppCompatActivity {
 
         @Override
         public int getItemViewType(int position) {
-            return position % 20 == 0 ? 0 : 1;
+            return isSectionHeader(position) ? 0 : 1;
         }
 
         @Override
         public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-            Log.i(tag, "onBindViewHolder");
+            //library的profile构建中输出到systrace/Perfetto，其它构建中整段被消除
+            if (BuildConfig.SECTION_TRACE) {
+                SectionTrace.begin("MyAdapter#onBindViewHolder");
+            }
             if (getItemViewType(position) == 1) {
                 ((ItemViewHolder) holder).tv.setText("ViewHolder item " + position);
             } else {
                 ((SectionViewHolder) holder).tv.setText("Section " + position);
             }
+            if (BuildConfig.SECTION_TRACE) {
+                SectionTrace.end();
+            }
         }
 
         @Override
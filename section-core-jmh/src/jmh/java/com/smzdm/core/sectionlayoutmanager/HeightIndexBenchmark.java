@@ -0,0 +1,77 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HeightIndex 在 10^5 ~ 10^7 行下的偏移量查询和测量，对应每帧的滚动条计算和可见item的记录
+ *
+ * @author Rango on 2020/11/24
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeightIndexBenchmark {
+    private static final int SECTION_INTERVAL = 10;
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "1000000", "10000000"})
+    public int rows;
+
+    private HeightIndex index;
+    private final int[] queries = new int[QUERIES];
+    private final int[] heights = new int[QUERIES];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] types = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            types[i] = i % SECTION_INTERVAL == 0 ? 0 : 1;
+        }
+        index = new HeightIndex(rows);
+        index.reset(types, rows);
+        index.setEstimate(0, 120);
+        index.setEstimate(1, 300);
+        Random random = new Random(42);
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = random.nextInt(rows);
+            heights[i] = 200 + random.nextInt(200);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (QUERIES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public long offsetOf() {
+        return index.offsetOf(queries[next()]);
+    }
+
+    @Benchmark
+    public int positionAt() {
+        return index.positionAt(index.totalHeight() * queries[next()] / rows);
+    }
+
+    /**
+     * 高度变化的测量，O(log n) 更新
+     */
+    @Benchmark
+    public long measure() {
+        int i = next();
+        index.measure(queries[i], heights[i]);
+        return index.totalHeight();
+    }
+}
@@ -0,0 +1,100 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SectionIndex / SectionMath 在 10^3 ~ 10^7 个Section下的查询、平移和吸顶区域重建
+ *
+ * @author Rango on 2020/11/22
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SectionIndexBenchmark {
+    private static final int SECTION_INTERVAL = 10;
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int sections;
+
+    @Param({"1", "3"})
+    public int depth;
+
+    private SectionIndex index;
+    private int itemCount;
+    private final int[] queries = new int[QUERIES];
+    private int[] chain;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        itemCount = sections * SECTION_INTERVAL;
+        index = new SectionIndex(sections);
+        for (int i = 0; i < sections; i++) {
+            index.add(i * SECTION_INTERVAL);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = random.nextInt(itemCount);
+        }
+        chain = new int[depth];
+    }
+
+    private int nextQuery() {
+        cursor = (cursor + 1) & (QUERIES - 1);
+        return queries[cursor];
+    }
+
+    @Benchmark
+    public int sectionForPosition() {
+        return index.sectionForPosition(nextQuery());
+    }
+
+    @Benchmark
+    public int nextSection() {
+        return index.nextSection(nextQuery());
+    }
+
+    /**
+     * 插入再删除一段item，索引保持不变，测量一次range通知的平移
+     */
+    @Benchmark
+    public int insertThenRemove() {
+        int position = nextQuery();
+        index.insertRange(position, SECTION_INTERVAL);
+        index.removeRange(position, SECTION_INTERVAL);
+        return index.size();
+    }
+
+    /**
+     * 在列表末尾插入再删除，对应分页加载，只需要平移很少的Section
+     */
+    @Benchmark
+    public int appendThenRemove() {
+        int position = itemCount - 1;
+        index.insertRange(position, SECTION_INTERVAL);
+        index.removeRange(position, SECTION_INTERVAL);
+        return index.size();
+    }
+
+    /**
+     * 跳转后重建吸顶区域
+     */
+    @Benchmark
+    public int rebuildStack() {
+        int anchor = SectionMath.anchorSection(index, nextQuery());
+        int start = SectionMath.collectChain(index, anchor, chain);
+        return start < chain.length ? chain[start] : start;
+    }
+}
@@ -0,0 +1,386 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import java.util.Arrays;
+
+/**
+ * 折叠Section后可见position与adapter position之间的映射，不依赖Android
+ * 以Section为单位分段（第一个Section之前的item单独一段，不能折叠），
+ * Fenwick树记录每段可见的item个数：展开时为整段长度，折叠时只剩Section本身
+ * 折叠/展开和两个方向的映射均为 O(log n)，n为段数；reset为 O(n)
+ * 不包含Section的插入/删除只修改所在的段，O(n)平移之后各段的起点，不需要重新分段；
+ * 包含Section的插入/删除只拆分或合并相邻的段，同样不需要重新分段
+ *
+ * @author Rango on 2020/11/25
+ */
+public class CollapseIndex {
+    public static final int NO_POSITION = -1;
+
+    private int count;
+    private int itemCount;
+    /**
+     * 第一段是否是第一个Section之前的item
+     */
+    private boolean leading;
+    private int[] starts = new int[16];
+    private int[] lengths = new int[16];
+    private boolean[] collapsed = new boolean[16];
+    /**
+     * 下标从1开始
+     */
+    private int[] tree = new int[17];
+
+    /**
+     * 按sections重新分段，全部展开
+     *
+     * @param itemCount adapter的item个数，>= itemCount的Section忽略
+     */
+    public void reset(SectionIndex sections, int itemCount) {
+        this.itemCount = itemCount;
+        count = 0;
+        int first = sections.isEmpty() ? itemCount : Math.min(sections.get(0), itemCount);
+        leading = first > 0;
+        ensureCapacity(sections.size() + 1);
+        if (leading) {
+            append(0, first);
+        }
+        for (int i = 0; i < sections.size(); i++) {
+            int start = sections.get(i);
+            if (start >= itemCount) {
+                break;
+            }
+            int end = i + 1 < sections.size() ? Math.min(sections.get(i + 1), itemCount) : itemCount;
+            append(start, end - start);
+        }
+        Arrays.fill(collapsed, 0, count, false);
+        buildTree();
+    }
+
+    private void buildTree() {
+        Arrays.fill(tree, 0, count + 1, 0);
+        for (int i = 1; i <= count; i++) {
+            tree[i] += collapsed[i - 1] ? 1 : lengths[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= count) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * 插入不包含Section的item：在positionStart - 1所在的段末尾或中间，在最前面时归入第一个Section之前的item
+     *
+     * @return 插入后第一个item的可见position，在折叠的Section中时返回 {@link #NO_POSITION}
+     */
+    public int insertItems(int positionStart, int itemCount) {
+        if (positionStart < 0 || positionStart > this.itemCount) {
+            throw new IndexOutOfBoundsException("position=" + positionStart + ", itemCount=" + this.itemCount);
+        }
+        if (itemCount <= 0) {
+            return NO_POSITION;
+        }
+        this.itemCount += itemCount;
+        if (positionStart == 0 && !leading) {
+            //新增第一个Section之前的一段
+            grow(count + 1);
+            System.arraycopy(starts, 0, starts, 1, count);
+            System.arraycopy(lengths, 0, lengths, 1, count);
+            System.arraycopy(collapsed, 0, collapsed, 1, count);
+            count++;
+            starts[0] = 0;
+            lengths[0] = itemCount;
+            collapsed[0] = false;
+            leading = true;
+            shiftStarts(1, itemCount);
+            buildTree();
+            return 0;
+        }
+        int segment = positionStart == 0 ? 0 : segmentOf(positionStart - 1);
+        lengths[segment] += itemCount;
+        shiftStarts(segment + 1, itemCount);
+        if (collapsed[segment]) {
+            return NO_POSITION;
+        }
+        add(segment, itemCount);
+        return prefix(segment) + positionStart - starts[segment];
+    }
+
+    /**
+     * 删除不包含Section的item，它们一定在同一段中
+     *
+     * @return 删除前第一个item的可见position，在折叠的Section中时返回 {@link #NO_POSITION}
+     */
+    public int removeItems(int positionStart, int itemCount) {
+        if (itemCount <= 0) {
+            return NO_POSITION;
+        }
+        if (positionStart < 0 || positionStart + itemCount > this.itemCount) {
+            throw new IndexOutOfBoundsException("position=" + positionStart + ", count=" + itemCount
+                    + ", itemCount=" + this.itemCount);
+        }
+        int segment = segmentOf(positionStart);
+        if (positionStart + itemCount > starts[segment] + lengths[segment]) {
+            throw new IllegalArgumentException("range crosses a section: " + positionStart + ", " + itemCount);
+        }
+        int visible = collapsed[segment] ? NO_POSITION : prefix(segment) + positionStart - starts[segment];
+        this.itemCount -= itemCount;
+        lengths[segment] -= itemCount;
+        shiftStarts(segment + 1, -itemCount);
+        if (lengths[segment] == 0) {
+            //只有第一个Section之前的一段可能被删空
+            count--;
+            System.arraycopy(starts, 1, starts, 0, count);
+            System.arraycopy(lengths, 1, lengths, 0, count);
+            System.arraycopy(collapsed, 1, collapsed, 0, count);
+            leading = false;
+            buildTree();
+        } else if (!collapsed[segment]) {
+            add(segment, -itemCount);
+        }
+        return visible;
+    }
+
+    /**
+     * 插入包含Section的item：positionStart - 1所在的段在第一个新Section处截断，
+     * 原来在positionStart之后的item归入最后一个新Section；新Section全部展开，其它段保持折叠状态
+     *
+     * @param sections 已经包含插入的Section，并且之后的Section已经平移
+     * @return 插入后第一个item的可见position，在折叠的Section中时返回 {@link #NO_POSITION}
+     */
+    public int insertSections(int positionStart, int itemCount, SectionIndex sections) {
+        if (positionStart < 0 || positionStart > this.itemCount) {
+            throw new IndexOutOfBoundsException("position=" + positionStart + ", itemCount=" + this.itemCount);
+        }
+        int end = positionStart + itemCount;
+        int first = itemCount <= 0 ? SectionIndex.NO_POSITION : sections.nextSection(positionStart - 1);
+        if (first == SectionIndex.NO_POSITION || first >= end) {
+            return insertItems(positionStart, itemCount);
+        }
+        //被截断的段和它在positionStart之后的item个数，在最前面插入时原来第一个Section之前的item整段归入最后一个新Section
+        int segment = positionStart == 0 ? -1 : segmentOf(positionStart - 1);
+        int tail;
+        int replaceFrom;
+        int replaceTo;
+        if (segment >= 0) {
+            tail = starts[segment] + lengths[segment] - positionStart;
+            lengths[segment] = first - starts[segment];
+            replaceFrom = segment + 1;
+            replaceTo = segment + 1;
+        } else {
+            tail = leading ? lengths[0] : 0;
+            replaceFrom = 0;
+            replaceTo = leading ? 1 : 0;
+        }
+        int added = segment < 0 && first > 0 ? 1 : 0;
+        for (int h = first; h != SectionIndex.NO_POSITION && h < end; h = sections.nextSection(h)) {
+            added++;
+        }
+        this.itemCount += itemCount;
+        replace(replaceFrom, replaceTo, added);
+        shiftStarts(replaceFrom + added, itemCount);
+        int i = replaceFrom;
+        if (segment < 0) {
+            leading = first > 0;
+            if (leading) {
+                set(i++, 0, first);
+            }
+        }
+        for (int h = first; h != SectionIndex.NO_POSITION && h < end; ) {
+            int next = sections.nextSection(h);
+            boolean last = next == SectionIndex.NO_POSITION || next >= end;
+            set(i++, h, (last ? end + tail : next) - h);
+            h = last ? SectionIndex.NO_POSITION : next;
+        }
+        buildTree();
+        return toVisiblePosition(positionStart);
+    }
+
+    /**
+     * 删除包含Section的item：删除范围之后、原来属于最后一个被删除Section的item归入它们之前的段，
+     * 在最前面时成为第一个Section之前的一段
+     *
+     * @return 删除前第一个item的可见position，在折叠的Section中时返回 {@link #NO_POSITION}
+     */
+    public int removeSections(int positionStart, int itemCount) {
+        if (itemCount <= 0) {
+            return NO_POSITION;
+        }
+        if (positionStart < 0 || positionStart + itemCount > this.itemCount) {
+            throw new IndexOutOfBoundsException("position=" + positionStart + ", count=" + itemCount
+                    + ", itemCount=" + this.itemCount);
+        }
+        int end = positionStart + itemCount;
+        int first = segmentOf(positionStart);
+        int last = segmentOf(end - 1);
+        if (last == first && (starts[first] != positionStart || (leading && first == 0))) {
+            return removeItems(positionStart, itemCount);
+        }
+        int offset = positionStart - starts[first];
+        int visible = collapsed[first] && offset > 0 ? NO_POSITION : prefix(first) + offset;
+        int tail = starts[last] + lengths[last] - end;
+        int removeFrom;
+        if (offset > 0) {
+            lengths[first] = offset + tail;
+            removeFrom = first + 1;
+        } else if (first > 0) {
+            lengths[first - 1] += tail;
+            removeFrom = first;
+        } else {
+            leading = tail > 0;
+            if (leading) {
+                set(0, 0, tail);
+            }
+            removeFrom = leading ? 1 : 0;
+        }
+        this.itemCount -= itemCount;
+        replace(removeFrom, last + 1, 0);
+        shiftStarts(removeFrom, -itemCount);
+        buildTree();
+        return visible;
+    }
+
+    /**
+     * 用added个新段替换 [from, to) 中的段，新段的内容由调用方填写
+     */
+    private void replace(int from, int to, int added) {
+        int delta = added - (to - from);
+        grow(count + delta);
+        System.arraycopy(starts, to, starts, from + added, count - to);
+        System.arraycopy(lengths, to, lengths, from + added, count - to);
+        System.arraycopy(collapsed, to, collapsed, from + added, count - to);
+        count += delta;
+    }
+
+    private void set(int segment, int start, int length) {
+        starts[segment] = start;
+        lengths[segment] = length;
+        collapsed[segment] = false;
+    }
+
+    private void shiftStarts(int from, int delta) {
+        for (int i = from; i < count; i++) {
+            starts[i] += delta;
+        }
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getVisibleCount() {
+        return prefix(count);
+    }
+
+    public boolean isCollapsed(int sectionPosition) {
+        int segment = sectionSegment(sectionPosition);
+        return segment >= 0 && collapsed[segment];
+    }
+
+    /**
+     * @return 隐藏或重新显示的item个数，即Section的长度 - 1；不是Section或状态没有变化时返回0
+     */
+    public int setCollapsed(int sectionPosition, boolean collapse) {
+        int segment = sectionSegment(sectionPosition);
+        if (segment < 0 || collapsed[segment] == collapse) {
+            return 0;
+        }
+        collapsed[segment] = collapse;
+        int hidden = lengths[segment] - 1;
+        add(segment, collapse ? -hidden : hidden);
+        return hidden;
+    }
+
+    /**
+     * @param visiblePosition [0, visibleCount)
+     */
+    public int toAdapterPosition(int visiblePosition) {
+        if (visiblePosition < 0 || visiblePosition >= getVisibleCount()) {
+            throw new IndexOutOfBoundsException("position=" + visiblePosition + ", visibleCount=" + getVisibleCount());
+        }
+        int segment = 0;
+        int remaining = visiblePosition;
+        for (int step = Integer.highestOneBit(count); step > 0; step >>= 1) {
+            int next = segment + step;
+            if (next <= count && tree[next] <= remaining) {
+                segment = next;
+                remaining -= tree[next];
+            }
+        }
+        return starts[segment] + remaining;
+    }
+
+    /**
+     * @return 在折叠的Section中时返回 {@link #NO_POSITION}
+     */
+    public int toVisiblePosition(int adapterPosition) {
+        if (adapterPosition < 0 || adapterPosition >= itemCount) {
+            throw new IndexOutOfBoundsException("position=" + adapterPosition + ", itemCount=" + itemCount);
+        }
+        int segment = segmentOf(adapterPosition);
+        int offset = adapterPosition - starts[segment];
+        if (collapsed[segment] && offset > 0) {
+            return NO_POSITION;
+        }
+        return prefix(segment) + offset;
+    }
+
+    /**
+     * @return Section所在的段，不是Section时返回-1
+     */
+    private int sectionSegment(int sectionPosition) {
+        if (sectionPosition < 0 || sectionPosition >= itemCount) {
+            return -1;
+        }
+        int segment = segmentOf(sectionPosition);
+        if (starts[segment] != sectionPosition || (leading && segment == 0)) {
+            return -1;
+        }
+        return segment;
+    }
+
+    private int segmentOf(int adapterPosition) {
+        int i = Arrays.binarySearch(starts, 0, count, adapterPosition);
+        return i >= 0 ? i : -(i + 1) - 1;
+    }
+
+    private void append(int start, int length) {
+        starts[count] = start;
+        lengths[count] = length;
+        count++;
+    }
+
+    private int prefix(int segments) {
+        int sum = 0;
+        for (int i = segments; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void add(int segment, int delta) {
+        for (int i = segment + 1; i <= count; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void grow(int capacity) {
+        if (capacity <= starts.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, starts.length << 1);
+        starts = Arrays.copyOf(starts, newCapacity);
+        lengths = Arrays.copyOf(lengths, newCapacity);
+        collapsed = Arrays.copyOf(collapsed, newCapacity);
+        tree = new int[newCapacity + 1];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= starts.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, starts.length << 1);
+        starts = new int[newCapacity];
+        lengths = new int[newCapacity];
+        collapsed = new boolean[newCapacity];
+        tree = new int[newCapacity + 1];
+    }
+}
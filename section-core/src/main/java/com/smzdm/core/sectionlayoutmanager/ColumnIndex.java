@@ -0,0 +1,231 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import java.util.Arrays;
+
+/**
+ * 一个Section内item的瀑布流位置，不依赖Android
+ * 按position顺序追加，每个item放到当前最短的一列，并列时取靠左的一列，
+ * 所以item的top随position单调不减，可以二分查找可见范围
+ * 坐标相对于Section的内容顶部（Section之下）；只缓存已经放置的前缀，修改某个item之后从它开始重新放置
+ * 每一列可以从不同的起点开始（{@link #reset(int[])}），用于从锚点开始的放置
+ *
+ * @author Rango on 2020/11/27
+ */
+public class ColumnIndex {
+    private final int spanCount;
+    private int size;
+    private int[] columns = new int[16];
+    private int[] tops = new int[16];
+    private int[] heights = new int[16];
+    /**
+     * 已经放置的item之后每一列的底部
+     */
+    private final int[] bottoms;
+    /**
+     * 没有放置item时每一列的底部，默认都是0
+     */
+    private final int[] starts;
+    /**
+     * firstVisible中标记已经找到的列，避免每次分配
+     */
+    private final int[] marks;
+    private int stamp;
+
+    public ColumnIndex(int spanCount) {
+        if (spanCount < 1) {
+            throw new IllegalArgumentException("spanCount < 1: " + spanCount);
+        }
+        this.spanCount = spanCount;
+        bottoms = new int[spanCount];
+        starts = new int[spanCount];
+        marks = new int[spanCount];
+    }
+
+    public int getSpanCount() {
+        return spanCount;
+    }
+
+    /**
+     * @return 已经放置的item个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return 下一个item的top，不需要知道它的高度
+     */
+    public int nextTop() {
+        return bottoms[nextColumn()];
+    }
+
+    private int nextColumn() {
+        int column = 0;
+        for (int i = 1; i < spanCount; i++) {
+            if (bottoms[i] < bottoms[column]) {
+                column = i;
+            }
+        }
+        return column;
+    }
+
+    /**
+     * 放置下一个item
+     *
+     * @return 所在的列
+     */
+    public int place(int height) {
+        if (size == columns.length) {
+            int capacity = size * 2;
+            columns = Arrays.copyOf(columns, capacity);
+            tops = Arrays.copyOf(tops, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+        }
+        int column = nextColumn();
+        columns[size] = column;
+        tops[size] = bottoms[column];
+        heights[size] = height;
+        bottoms[column] += height;
+        size++;
+        return column;
+    }
+
+    public int columnAt(int index) {
+        checkIndex(index);
+        return columns[index];
+    }
+
+    public int topAt(int index) {
+        checkIndex(index);
+        return tops[index];
+    }
+
+    public int heightAt(int index) {
+        checkIndex(index);
+        return heights[index];
+    }
+
+    /**
+     * @return 已经放置的item中最低的底部，全部放置后就是Section内容的高度
+     */
+    public int height() {
+        int height = bottoms[0];
+        for (int bottom : bottoms) {
+            height = Math.max(height, bottom);
+        }
+        return height;
+    }
+
+    /**
+     * 前index个item放置后每一列的底部，即放置第index个item之前的状态，O(spanCount)
+     *
+     * @param out 长度为spanCount
+     */
+    public void linesAt(int index, int[] out) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        System.arraycopy(starts, 0, out, 0, spanCount);
+        int remaining = spanCount;
+        nextStamp();
+        for (int i = index - 1; i >= 0 && remaining > 0; i--) {
+            int column = columns[i];
+            if (marks[column] != stamp) {
+                marks[column] = stamp;
+                remaining--;
+                out[column] = tops[i] + heights[i];
+            }
+        }
+    }
+
+    /**
+     * 只保留前size个item，之后的item需要重新放置，O(size)
+     */
+    public void truncate(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size < 0: " + size);
+        }
+        if (size >= this.size) {
+            return;
+        }
+        this.size = size;
+        System.arraycopy(starts, 0, bottoms, 0, spanCount);
+        //同一列中后放置的item更低
+        for (int i = 0; i < size; i++) {
+            bottoms[columns[i]] = tops[i] + heights[i];
+        }
+    }
+
+    public void clear() {
+        truncate(0);
+    }
+
+    /**
+     * 清空并设置每一列的起点
+     *
+     * @param lines 每一列第一个item的top，null表示都从0开始
+     */
+    public void reset(int[] lines) {
+        if (lines == null) {
+            Arrays.fill(starts, 0);
+        } else {
+            System.arraycopy(lines, 0, starts, 0, spanCount);
+        }
+        size = 0;
+        System.arraycopy(starts, 0, bottoms, 0, spanCount);
+    }
+
+    /**
+     * @return 第一个top >= y 的item，不存在时返回 {@link #size()}，O(log n)
+     */
+    public int indexAt(int y) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tops[mid] < y) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 第一个底部在y之下的item：indexAt(y)之前每一列只有最后一个item可能跨过y
+     *
+     * @return 不存在时返回 {@link #size()}
+     */
+    public int firstVisible(int y) {
+        int index = indexAt(y);
+        int first = index;
+        int remaining = spanCount;
+        nextStamp();
+        for (int i = index - 1; i >= 0 && remaining > 0; i--) {
+            int column = columns[i];
+            if (marks[column] == stamp) {
+                continue;
+            }
+            marks[column] = stamp;
+            remaining--;
+            if (tops[i] + heights[i] > y) {
+                first = i;
+            }
+        }
+        return first;
+    }
+
+    private void nextStamp() {
+        if (++stamp == 0) {
+            Arrays.fill(marks, 0);
+            stamp = 1;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+}
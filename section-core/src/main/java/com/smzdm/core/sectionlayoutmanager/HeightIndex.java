@@ -0,0 +1,352 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import java.util.Arrays;
+
+/**
+ * 每个position的高度索引，基于Fenwick树（树状数组）
+ * 测量过的position使用实际高度，没有测量过的使用同viewType的估计高度；
+ * 偏移量与按偏移量查找position均为 O(log n)，末尾追加 O(k log n)，其它插入、删除、移动和新的估计高度 O(n) 重建
+ *
+ * @author Rango on 2020/11/24
+ */
+public class HeightIndex {
+    public static final int NO_POSITION = -1;
+
+    private int size;
+    private int[] heights;
+    private int[] types;
+    private boolean[] measured;
+    /**
+     * 下标从1开始，tree[i]是 (i - lowbit(i), i] 的高度之和
+     */
+    private long[] tree;
+
+    /**
+     * viewType -> 估计高度，viewType通常只有几个，线性查找
+     */
+    private int[] estimateTypes = new int[4];
+    private int[] estimateHeights = new int[4];
+    private int estimateCount;
+
+    public HeightIndex() {
+        this(16);
+    }
+
+    public HeightIndex(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        heights = new int[capacity];
+        types = new int[capacity];
+        measured = new boolean[capacity];
+        tree = new long[capacity + 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 清空所有position和估计高度，adapter变化时使用
+     */
+    public void clear() {
+        size = 0;
+        estimateCount = 0;
+    }
+
+    /**
+     * 重新建立，所有position都没有测量过，已有的估计高度保留
+     *
+     * @param types 前count个元素是每个position的viewType
+     */
+    public void reset(int[] types, int count) {
+        ensureCapacity(count);
+        size = count;
+        System.arraycopy(types, 0, this.types, 0, count);
+        Arrays.fill(measured, 0, count, false);
+        for (int i = 0; i < count; i++) {
+            heights[i] = getEstimate(types[i]);
+        }
+        build();
+    }
+
+    /**
+     * 设置viewType的估计高度，没有测量过的同类型position立即使用，O(n)
+     * 第一个设置的估计高度同时作为其它还没有估计高度的viewType的估计值
+     */
+    public void setEstimate(int type, int height) {
+        int i = estimateIndex(type);
+        if (i >= 0 && estimateHeights[i] == height) {
+            return;
+        }
+        if (i < 0) {
+            if (estimateCount == estimateTypes.length) {
+                estimateTypes = Arrays.copyOf(estimateTypes, estimateCount << 1);
+                estimateHeights = Arrays.copyOf(estimateHeights, estimateCount << 1);
+            }
+            i = estimateCount++;
+            estimateTypes[i] = type;
+        }
+        estimateHeights[i] = height;
+        boolean changed = false;
+        for (int position = 0; position < size; position++) {
+            if (!measured[position]) {
+                int estimate = getEstimate(types[position]);
+                changed |= heights[position] != estimate;
+                heights[position] = estimate;
+            }
+        }
+        if (changed) {
+            build();
+        }
+    }
+
+    /**
+     * @return 没有设置过时返回第一个设置的估计高度，都没有时返回0
+     */
+    public int getEstimate(int type) {
+        int i = estimateIndex(type);
+        if (i >= 0) {
+            return estimateHeights[i];
+        }
+        return estimateCount == 0 ? 0 : estimateHeights[0];
+    }
+
+    public boolean hasEstimate(int type) {
+        return estimateIndex(type) >= 0;
+    }
+
+    /**
+     * 记录测量后的高度，O(log n)；viewType第一次测量时作为它的估计高度
+     */
+    public void measure(int position, int height) {
+        checkPosition(position);
+        if (measured[position] && heights[position] == height) {
+            return;
+        }
+        if (!hasEstimate(types[position])) {
+            setEstimate(types[position], height);
+        }
+        measured[position] = true;
+        int delta = height - heights[position];
+        if (delta != 0) {
+            heights[position] = height;
+            add(position, delta);
+        }
+    }
+
+    public int heightAt(int position) {
+        checkPosition(position);
+        return heights[position];
+    }
+
+    public boolean isMeasured(int position) {
+        checkPosition(position);
+        return measured[position];
+    }
+
+    /**
+     * @param position [0, size]
+     * @return [0, position) 的高度之和，即position的顶部到列表顶部的距离
+     */
+    public long offsetOf(int position) {
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("position=" + position + ", size=" + size);
+        }
+        long sum = 0;
+        for (int i = position; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    public long totalHeight() {
+        return offsetOf(size);
+    }
+
+    /**
+     * @return 覆盖offset的position，即顶部 <= offset 的最后一个position；
+     * offset超出范围时取第一个或最后一个，没有position时返回 {@link #NO_POSITION}
+     */
+    public int positionAt(long offset) {
+        if (size == 0) {
+            return NO_POSITION;
+        }
+        int position = 0;
+        long remaining = offset;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return Math.min(position, size - 1);
+    }
+
+    /**
+     * 对应 notifyItemRangeInserted，新的position没有测量过
+     * 在末尾追加（如stackFromEnd的聊天列表收到新消息）时不重建
+     *
+     * @param newTypes 前itemCount个元素是插入的viewType
+     */
+    public void insert(int positionStart, int[] newTypes, int itemCount) {
+        if (positionStart < 0 || positionStart > size) {
+            throw new IndexOutOfBoundsException("position=" + positionStart + ", size=" + size);
+        }
+        if (itemCount <= 0) {
+            return;
+        }
+        if (positionStart == size && size + itemCount <= heights.length) {
+            for (int i = 0; i < itemCount; i++) {
+                append(newTypes[i]);
+            }
+            return;
+        }
+        ensureCapacity(size + itemCount);
+        int tail = size - positionStart;
+        System.arraycopy(heights, positionStart, heights, positionStart + itemCount, tail);
+        System.arraycopy(types, positionStart, types, positionStart + itemCount, tail);
+        System.arraycopy(measured, positionStart, measured, positionStart + itemCount, tail);
+        for (int i = 0; i < itemCount; i++) {
+            types[positionStart + i] = newTypes[i];
+            measured[positionStart + i] = false;
+            heights[positionStart + i] = getEstimate(newTypes[i]);
+        }
+        size += itemCount;
+        build();
+    }
+
+    /**
+     * 对应 notifyItemRangeRemoved
+     */
+    public void remove(int positionStart, int itemCount) {
+        if (itemCount <= 0) {
+            return;
+        }
+        checkRange(positionStart, itemCount);
+        int from = positionStart + itemCount;
+        int tail = size - from;
+        System.arraycopy(heights, from, heights, positionStart, tail);
+        System.arraycopy(types, from, types, positionStart, tail);
+        System.arraycopy(measured, from, measured, positionStart, tail);
+        size -= itemCount;
+        build();
+    }
+
+    /**
+     * 对应 notifyItemMoved：[from, from + itemCount) 移动到以 to 为起点的位置（to为移动完成后的位置），
+     * 测量过的高度跟随移动
+     */
+    public void move(int from, int to, int itemCount) {
+        if (itemCount <= 0 || from == to) {
+            return;
+        }
+        checkRange(from, itemCount);
+        checkRange(to, itemCount);
+        int[] movedHeights = Arrays.copyOfRange(heights, from, from + itemCount);
+        int[] movedTypes = Arrays.copyOfRange(types, from, from + itemCount);
+        boolean[] movedMeasured = Arrays.copyOfRange(measured, from, from + itemCount);
+        //from和to之间的position整体平移itemCount
+        if (from < to) {
+            int count = to - from;
+            System.arraycopy(heights, from + itemCount, heights, from, count);
+            System.arraycopy(types, from + itemCount, types, from, count);
+            System.arraycopy(measured, from + itemCount, measured, from, count);
+        } else {
+            int count = from - to;
+            System.arraycopy(heights, to, heights, to + itemCount, count);
+            System.arraycopy(types, to, types, to + itemCount, count);
+            System.arraycopy(measured, to, measured, to + itemCount, count);
+        }
+        System.arraycopy(movedHeights, 0, heights, to, itemCount);
+        System.arraycopy(movedTypes, 0, types, to, itemCount);
+        System.arraycopy(movedMeasured, 0, measured, to, itemCount);
+        build();
+    }
+
+    /**
+     * 对应 notifyItemRangeChanged：内容和viewType可能变化，回到估计高度等待重新测量，O(k log n)
+     *
+     * @param newTypes 前itemCount个元素是新的viewType
+     */
+    public void update(int positionStart, int[] newTypes, int itemCount) {
+        if (itemCount <= 0) {
+            return;
+        }
+        checkRange(positionStart, itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            int position = positionStart + i;
+            types[position] = newTypes[i];
+            measured[position] = false;
+            int delta = getEstimate(newTypes[i]) - heights[position];
+            if (delta != 0) {
+                heights[position] += delta;
+                add(position, delta);
+            }
+        }
+    }
+
+    /**
+     * tree[i]覆盖 (i - lowbit(i), i]，除了新的高度之外都已经在树中，O(log n)
+     */
+    private void append(int type) {
+        int position = size++;
+        types[position] = type;
+        measured[position] = false;
+        heights[position] = getEstimate(type);
+        int i = position + 1;
+        tree[i] = heights[position] + offsetOf(position) - offsetOf(i - (i & -i));
+    }
+
+    private void add(int position, int delta) {
+        for (int i = position + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * O(n) 建立Fenwick树
+     */
+    private void build() {
+        Arrays.fill(tree, 0, size + 1, 0);
+        for (int i = 1; i <= size; i++) {
+            tree[i] += heights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private int estimateIndex(int type) {
+        for (int i = 0; i < estimateCount; i++) {
+            if (estimateTypes[i] == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= heights.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, heights.length << 1);
+        heights = Arrays.copyOf(heights, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        measured = Arrays.copyOf(measured, newCapacity);
+        tree = new long[newCapacity + 1];
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position=" + position + ", size=" + size);
+        }
+    }
+
+    private void checkRange(int positionStart, int itemCount) {
+        if (positionStart < 0 || positionStart + itemCount > size) {
+            throw new IndexOutOfBoundsException("range=[" + positionStart + ", " + (positionStart + itemCount)
+                    + "), size=" + size);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import java.util.Arrays;
+
+/**
+ * 一个Section内item的瀑布流位置，不依赖Android
+ * 通常从Section顶部开始按顺序放置（{@link ColumnIndex}）；跳转到很长的Section中间时，
+ * 类似StaggeredGridLayoutManager的LazySpanLookup，从锚点item开始放置（{@link #floatAt(int, int[])}）：
+ * 锚点之后的item向下放置，之前的item在回滚时逐个向上放置，只需要测量露出的item
+ * 向上放置到Section的第一个item时，用已经测量的高度从顶部重新放置，之后与直接从顶部放置的结果一致
+ * 坐标相对于Section的内容顶部，从锚点开始放置时为已经向上放置的最高处
+ *
+ * @author Rango on 2020/11/27
+ */
+public class SectionColumns {
+    private final int spanCount;
+    /**
+     * 从顶部开始放置时是全部item，从锚点开始放置时是锚点及之后的item
+     */
+    private final ColumnIndex below;
+    /**
+     * 锚点之前向上放置的item，按从锚点往上的顺序，坐标是到锚点所在的线的距离（向上为正）
+     */
+    private final ColumnIndex above;
+    /**
+     * 锚点item的下标，-1表示从顶部开始放置
+     */
+    private int floatIndex = -1;
+    /**
+     * floatAt中锚点之前的item向上放置的起点
+     */
+    private final int[] mirrored;
+    private int[] heights = new int[16];
+
+    public SectionColumns(int spanCount) {
+        below = new ColumnIndex(spanCount);
+        above = new ColumnIndex(spanCount);
+        this.spanCount = spanCount;
+        mirrored = new int[spanCount];
+    }
+
+    public int getSpanCount() {
+        return spanCount;
+    }
+
+    /**
+     * @return true 从锚点开始放置，Section顶部到已经放置的item之间还有没有放置的item
+     */
+    public boolean isFloating() {
+        return floatIndex >= 0;
+    }
+
+    /**
+     * @return 已经放置的第一个item
+     */
+    public int start() {
+        return isFloating() ? floatIndex - above.size() : 0;
+    }
+
+    /**
+     * @return 已经放置的最后一个item之后的下标
+     */
+    public int end() {
+        return isFloating() ? floatIndex + below.size() : below.size();
+    }
+
+    public boolean isPlaced(int index) {
+        return index >= start() && index < end();
+    }
+
+    /**
+     * @return 锚点所在的线
+     */
+    private int floatLine() {
+        return isFloating() ? above.height() : 0;
+    }
+
+    /**
+     * @return 向下放置的下一个item的top
+     */
+    public int nextTop() {
+        return floatLine() + below.nextTop();
+    }
+
+    /**
+     * 向下放置下一个item，即 {@link #end()}
+     *
+     * @return 所在的列
+     */
+    public int place(int height) {
+        return below.place(height);
+    }
+
+    /**
+     * @return 向上放置的下一个item，即 {@link #start()} - 1
+     */
+    public int previousIndex() {
+        return start() - 1;
+    }
+
+    /**
+     * 向上放置下一个item（{@link #previousIndex()}），放到底部最低的一列；
+     * 放置到第一个item时从顶部重新放置，之后不再 {@link #isFloating()}
+     *
+     * @return 内容顶部向上移动的距离，调用方需要把Section上移同样的距离来保持已经放置的item不动
+     */
+    public int placeAbove(int height) {
+        if (!isFloating() || above.size() == floatIndex) {
+            throw new IllegalStateException("nothing above, start: " + start());
+        }
+        int before = above.height();
+        above.place(height);
+        int grown = above.height() - before;
+        if (above.size() == floatIndex) {
+            settle();
+        }
+        return grown;
+    }
+
+    /**
+     * 所有item都已经测量，按顺序从顶部重新放置
+     */
+    private void settle() {
+        int size = end();
+        if (heights.length < size) {
+            heights = new int[Math.max(size, heights.length * 2)];
+        }
+        for (int i = 0; i < size; i++) {
+            heights[i] = heightAt(i);
+        }
+        floatIndex = -1;
+        above.reset(null);
+        below.reset(null);
+        for (int i = 0; i < size; i++) {
+            below.place(heights[i]);
+        }
+    }
+
+    /**
+     * @return 已经放置的item占据的高度，放置完所有item后就是Section内容的高度
+     */
+    public int height() {
+        return floatLine() + below.height();
+    }
+
+    public int columnAt(int index) {
+        checkIndex(index);
+        if (!isFloating()) {
+            return below.columnAt(index);
+        }
+        return index >= floatIndex ? below.columnAt(index - floatIndex) : above.columnAt(floatIndex - 1 - index);
+    }
+
+    public int topAt(int index) {
+        checkIndex(index);
+        if (!isFloating()) {
+            return below.topAt(index);
+        }
+        if (index >= floatIndex) {
+            return floatLine() + below.topAt(index - floatIndex);
+        }
+        int i = floatIndex - 1 - index;
+        return floatLine() - above.topAt(i) - above.heightAt(i);
+    }
+
+    public int heightAt(int index) {
+        checkIndex(index);
+        if (!isFloating()) {
+            return below.heightAt(index);
+        }
+        return index >= floatIndex ? below.heightAt(index - floatIndex) : above.heightAt(floatIndex - 1 - index);
+    }
+
+    /**
+     * 第一个底部在y之下的item，之后到 {@link #indexAt(int)} 之间可能包括少量不可见的item
+     *
+     * @return 不存在时返回 {@link #end()}
+     */
+    public int firstVisible(int y) {
+        if (!isFloating()) {
+            return below.firstVisible(y);
+        }
+        //锚点之前的item可能跨过锚点所在的线
+        int count = above.indexAt(floatLine() - y);
+        if (count > 0) {
+            return floatIndex - count;
+        }
+        return floatIndex + below.firstVisible(y - floatLine());
+    }
+
+    /**
+     * @return 可见范围的结束位置，之后的item的top都 >= y，不存在时返回 {@link #end()}
+     */
+    public int indexAt(int y) {
+        if (!isFloating()) {
+            return below.indexAt(y);
+        }
+        int line = floatLine();
+        if (y > line) {
+            return floatIndex + below.indexAt(y - line);
+        }
+        return floatIndex - above.firstVisible(line - y);
+    }
+
+    /**
+     * 只保留前size个item，之后的item需要重新放置；从锚点开始放置时修改了锚点之前的item则全部丢弃
+     */
+    public void truncate(int size) {
+        if (!isFloating()) {
+            below.truncate(size);
+        } else if (size >= floatIndex) {
+            below.truncate(size - floatIndex);
+        } else {
+            clear();
+        }
+    }
+
+    public void clear() {
+        floatIndex = -1;
+        above.reset(null);
+        below.reset(null);
+    }
+
+    /**
+     * 丢弃已经放置的item，之后从index开始放置
+     *
+     * @param lines 锚点item的top为0时每一列的起点，来自 {@link #linesAt(int, int[])}，null表示对齐
+     */
+    public void floatAt(int index, int[] lines) {
+        if (index <= 0) {
+            clear();
+            return;
+        }
+        floatIndex = index;
+        below.reset(lines);
+        if (lines == null) {
+            above.reset(null);
+        } else {
+            //锚点之前的item在各列的底部就是之后的item的起点
+            for (int i = 0; i < spanCount; i++) {
+                mirrored[i] = -lines[i];
+            }
+            above.reset(mirrored);
+        }
+    }
+
+    /**
+     * 放置第index个item之前每一列的底部，相对于第index个item的top；
+     * 在锚点之前的item没有准确的状态，返回对齐的0
+     *
+     * @param out 长度为spanCount
+     */
+    public void linesAt(int index, int[] out) {
+        checkIndex(index);
+        if (isFloating() && index < floatIndex) {
+            Arrays.fill(out, 0, spanCount, 0);
+            return;
+        }
+        int offset = Math.max(0, floatIndex);
+        below.linesAt(index - offset, out);
+        int top = below.topAt(index - offset);
+        for (int i = 0; i < spanCount; i++) {
+            out[i] -= top;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (!isPlaced(index)) {
+            throw new IndexOutOfBoundsException("index: " + index + ", start: " + start() + ", end: " + end());
+        }
+    }
+}
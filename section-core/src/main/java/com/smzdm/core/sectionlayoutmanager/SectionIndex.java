@@ -0,0 +1,220 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import java.util.Arrays;
+
+/**
+ * 有序的Section起始位置索引
+ * 基于int数组，不装箱、不分配节点，查询均为二分 O(log n)
+ * 数组中存的是position - base，在所有Section之前插入/删除item只修改base，O(1)，
+ * 如reverseLayout的聊天列表在position 0插入新消息
+ *
+ * @author Rango on 2020/11/18
+ */
+public class SectionIndex {
+    public static final int NO_POSITION = -1;
+
+    /**
+     * 有序的 position - base
+     */
+    private int[] keys;
+    private int base;
+    private int size;
+
+    public SectionIndex() {
+        this(16);
+    }
+
+    public SectionIndex(int initialCapacity) {
+        keys = new int[Math.max(1, initialCapacity)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index 索引下标 [0, size)
+     * @return 第index个Section的position
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return keys[index] + base;
+    }
+
+    public boolean contains(int position) {
+        return Arrays.binarySearch(keys, 0, size, position - base) >= 0;
+    }
+
+    /**
+     * @return true 新增成功，false 已经存在
+     */
+    public boolean add(int position) {
+        int i = Arrays.binarySearch(keys, 0, size, position - base);
+        if (i >= 0) {
+            return false;
+        }
+        int insertAt = -(i + 1);
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+        }
+        System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+        keys[insertAt] = position - base;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true 移除成功，false 不存在
+     */
+    public boolean remove(int position) {
+        int i = Arrays.binarySearch(keys, 0, size, position - base);
+        if (i < 0) {
+            return false;
+        }
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+        base = 0;
+    }
+
+    /**
+     * 对应 notifyItemRangeInserted：>= positionStart 的Section整体后移 itemCount
+     * O(min(k, n - k) + log n)，k为需要平移的Section个数：平移的一侧较多时改为base后移、另一侧前移
+     */
+    public void insertRange(int positionStart, int itemCount) {
+        if (itemCount <= 0) {
+            return;
+        }
+        shift(ceilIndex(positionStart), itemCount);
+    }
+
+    /**
+     * 下标 >= from 的Section平移delta
+     */
+    private void shift(int from, int delta) {
+        if (size - from <= from) {
+            for (int i = from; i < size; i++) {
+                keys[i] += delta;
+            }
+        } else {
+            base += delta;
+            for (int i = 0; i < from; i++) {
+                keys[i] -= delta;
+            }
+        }
+    }
+
+    /**
+     * 对应 notifyItemRangeRemoved：移除 [positionStart, positionStart + itemCount) 内的Section，
+     * 之后的Section整体前移 itemCount
+     * 没有移除Section时同 {@link #insertRange(int, int)}；否则 O(n - k) 压缩数组
+     */
+    public void removeRange(int positionStart, int itemCount) {
+        if (itemCount <= 0) {
+            return;
+        }
+        int positionEnd = positionStart + itemCount;
+        int from = ceilIndex(positionStart);
+        int to = ceilIndex(positionEnd);
+        int removed = to - from;
+        if (removed > 0) {
+            System.arraycopy(keys, to, keys, from, size - to);
+            size -= removed;
+        }
+        shift(from, -itemCount);
+    }
+
+    /**
+     * 对应 notifyItemMoved：[from, from + itemCount) 移动到以 to 为起点的位置（to为移动完成后的位置）
+     */
+    public void move(int from, int to, int itemCount) {
+        if (itemCount <= 0 || from == to) {
+            return;
+        }
+        int start = ceilIndex(from);
+        int end = ceilIndex(from + itemCount);
+        int moved = end - start;
+        if (moved == 0) {
+            removeRange(from, itemCount);
+            insertRange(to, itemCount);
+            return;
+        }
+        //RecyclerView的move通常只有一个item，这里只在多个Section一起移动的时候分配
+        int firstOffset = get(start) - from;
+        int[] offsets = moved == 1 ? null : new int[moved];
+        for (int i = 0; offsets != null && i < moved; i++) {
+            offsets[i] = get(start + i) - from;
+        }
+        removeRange(from, itemCount);
+        insertRange(to, itemCount);
+        if (offsets == null) {
+            add(to + firstOffset);
+        } else {
+            for (int offset : offsets) {
+                add(to + offset);
+            }
+        }
+    }
+
+    /**
+     * position所属的Section，即 <= position 的最大Section位置
+     *
+     * @return 不存在时返回 {@link #NO_POSITION}
+     */
+    public int sectionForPosition(int position) {
+        int i = floorIndex(position);
+        return i < 0 ? NO_POSITION : keys[i] + base;
+    }
+
+    /**
+     * position所属Section在索引中的下标，与 {@link #get(int)} 对应
+     *
+     * @return 在所有Section之前时返回 -1
+     */
+    public int indexOfSection(int position) {
+        return floorIndex(position);
+    }
+
+    /**
+     * @return > position 的最小Section位置，不存在时返回 {@link #NO_POSITION}
+     */
+    public int nextSection(int position) {
+        int i = floorIndex(position) + 1;
+        return i < size ? keys[i] + base : NO_POSITION;
+    }
+
+    /**
+     * @return < position 的最大Section位置，不存在时返回 {@link #NO_POSITION}
+     */
+    public int previousSection(int position) {
+        int i = Arrays.binarySearch(keys, 0, size, position - base);
+        int prev = i >= 0 ? i - 1 : -(i + 1) - 1;
+        return prev < 0 ? NO_POSITION : keys[prev] + base;
+    }
+
+    /**
+     * @return >= position 的最小元素下标，不存在时返回 size
+     */
+    private int ceilIndex(int position) {
+        int i = Arrays.binarySearch(keys, 0, size, position - base);
+        return i >= 0 ? i : -(i + 1);
+    }
+
+    /**
+     * @return <= position 的最大元素下标，不存在时返回 -1
+     */
+    private int floorIndex(int position) {
+        int i = Arrays.binarySearch(keys, 0, size, position - base);
+        return i >= 0 ? i : -(i + 1) - 1;
+    }
+}
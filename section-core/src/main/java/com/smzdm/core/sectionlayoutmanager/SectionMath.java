@@ -0,0 +1,94 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+/**
+ * 吸顶Section的计算，不依赖Android
+ * 吸顶区域是按position升序从上往下堆叠的最多maxSectionCount个Section；
+ * reverseLayout时position从下往上增长，Section是它所在分组中position最大的item，吸顶区域按position降序堆叠，
+ * 对应带reversed参数的版本
+ *
+ * @author Rango on 2020/11/22
+ */
+public final class SectionMath {
+
+    private SectionMath() {
+    }
+
+    /**
+     * 已经完全滚出屏幕的最后一个Section，它以及之前的Section一定吸顶
+     *
+     * @param firstVisiblePosition 第一个可见item的position
+     * @return 不存在时返回 {@link SectionIndex#NO_POSITION}
+     */
+    public static int anchorSection(SectionIndex index, int firstVisiblePosition) {
+        return index.sectionForPosition(firstVisiblePosition - 1);
+    }
+
+    /**
+     * @param topVisiblePosition 最上面一个可见item的position，reverseLayout时是最大的可见position
+     */
+    public static int anchorSection(SectionIndex index, int topVisiblePosition, boolean reversed) {
+        return reversed ? index.nextSection(topVisiblePosition) : anchorSection(index, topVisiblePosition);
+    }
+
+    /**
+     * 以anchor结尾、最多out.length个连续的Section，按升序写到out的末尾
+     * O(out.length * log n)，用于跳转或回滚后重建吸顶区域
+     *
+     * @return 第一个Section在out中的下标，anchor不存在时返回out.length
+     */
+    public static int collectChain(SectionIndex index, int anchor, int[] out) {
+        return collectChain(index, anchor, out, false);
+    }
+
+    /**
+     * 同 {@link #collectChain(SectionIndex, int, int[])}，reversed时按堆叠顺序（position降序）写入
+     */
+    public static int collectChain(SectionIndex index, int anchor, int[] out, boolean reversed) {
+        int start = out.length;
+        if (anchor == SectionIndex.NO_POSITION || start == 0) {
+            return start;
+        }
+        out[--start] = anchor;
+        while (start > 0) {
+            int previous = reversed ? index.nextSection(out[start]) : index.previousSection(out[start]);
+            if (previous == SectionIndex.NO_POSITION) {
+                break;
+            }
+            out[--start] = previous;
+        }
+        return start;
+    }
+
+    /**
+     * 下一个Section的顶部小于该值时入栈
+     * 栈满的时候入栈会淘汰栈底，所以要等栈底完全被推出之后
+     *
+     * @param stackHeight  吸顶区域的高度
+     * @param bottomHeight 栈底Section的高度
+     * @param full         吸顶区域是否已满
+     */
+    public static int joinThreshold(int stackHeight, int bottomHeight, boolean full) {
+        return full ? stackHeight - bottomHeight : stackHeight;
+    }
+
+    /**
+     * 入栈的逆过程：Section在列表中的顶部回到它下方的吸顶区域之外时出栈
+     *
+     * @param listTop     Section在列表中的顶部
+     * @param heightBelow 栈中在它之前的Section的高度之和
+     */
+    public static boolean shouldPop(int listTop, int heightBelow) {
+        return listTop >= heightBelow;
+    }
+
+    /**
+     * 吸顶区域被下一个Section向上推的偏移量，<= 0
+     *
+     * @param nextTop     下一个Section在列表中的顶部
+     * @param stackHeight 吸顶区域的高度
+     * @param full        吸顶区域是否已满，未满时下一个Section会直接入栈，不推动
+     */
+    public static int pushOffset(int nextTop, int stackHeight, boolean full) {
+        return full ? Math.min(0, nextTop - stackHeight) : 0;
+    }
+}
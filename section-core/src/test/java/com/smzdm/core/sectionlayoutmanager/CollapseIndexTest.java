@@ -0,0 +1,248 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Rango on 2020/11/25
+ */
+public class CollapseIndexTest {
+
+    /**
+     * 0..4不属于任何Section，Section在5、20、40，共50个item
+     */
+    private static CollapseIndex of() {
+        SectionIndex sections = new SectionIndex();
+        sections.add(5);
+        sections.add(20);
+        sections.add(40);
+        CollapseIndex index = new CollapseIndex();
+        index.reset(sections, 50);
+        return index;
+    }
+
+    @Test
+    public void expanded_identity() {
+        CollapseIndex index = of();
+        assertEquals(50, index.getVisibleCount());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, index.toAdapterPosition(i));
+            assertEquals(i, index.toVisiblePosition(i));
+        }
+    }
+
+    @Test
+    public void collapse_hidesSectionItems() {
+        CollapseIndex index = of();
+        assertEquals(19, index.setCollapsed(20, true));
+        assertTrue(index.isCollapsed(20));
+        assertEquals(31, index.getVisibleCount());
+        assertEquals(20, index.toAdapterPosition(20));
+        assertEquals(40, index.toAdapterPosition(21));
+        assertEquals(CollapseIndex.NO_POSITION, index.toVisiblePosition(21));
+        assertEquals(21, index.toVisiblePosition(40));
+
+        //重复折叠没有变化
+        assertEquals(0, index.setCollapsed(20, true));
+        assertEquals(14, index.setCollapsed(5, true));
+        assertEquals(17, index.getVisibleCount());
+        assertEquals(5, index.toAdapterPosition(5));
+        assertEquals(20, index.toAdapterPosition(6));
+        assertEquals(49, index.toAdapterPosition(16));
+
+        assertEquals(19, index.setCollapsed(20, false));
+        assertEquals(36, index.getVisibleCount());
+        assertEquals(21, index.toAdapterPosition(7));
+    }
+
+    @Test
+    public void onlySectionsCollapse() {
+        CollapseIndex index = of();
+        assertEquals(0, index.setCollapsed(0, true));
+        assertEquals(0, index.setCollapsed(21, true));
+        assertFalse(index.isCollapsed(0));
+        assertEquals(50, index.getVisibleCount());
+        //最后一个Section折叠
+        assertEquals(9, index.setCollapsed(40, true));
+        assertEquals(41, index.getVisibleCount());
+        assertEquals(40, index.toAdapterPosition(40));
+    }
+
+    @Test
+    public void reset_growsAndExpands() {
+        SectionIndex sections = new SectionIndex();
+        for (int i = 0; i < 1000; i++) {
+            sections.add(i * 3);
+        }
+        CollapseIndex index = of();
+        index.setCollapsed(5, true);
+        index.reset(sections, 3000);
+        assertEquals(3000, index.getVisibleCount());
+        assertEquals(2, index.setCollapsed(2997, true));
+        assertEquals(2997, index.toAdapterPosition(2997));
+        assertEquals(2998, index.getVisibleCount());
+    }
+
+    @Test
+    public void insertItems_updatesInPlace() {
+        CollapseIndex index = of();
+        index.setCollapsed(20, true);
+        //展开的Section中间
+        assertEquals(10, index.insertItems(10, 3));
+        //折叠的Section末尾，45是原来的40
+        assertEquals(CollapseIndex.NO_POSITION, index.insertItems(43, 2));
+        assertEquals(55, index.getItemCount());
+        assertEquals(23, index.toVisiblePosition(23));
+        assertEquals(24, index.toVisiblePosition(45));
+        assertTrue(index.isCollapsed(23));
+        assertEquals(55 - 21, index.getVisibleCount());
+        assertSame(index, 55, 8, 23, 45);
+    }
+
+    @Test
+    public void insertItems_beforeFirstSection() {
+        SectionIndex sections = new SectionIndex();
+        sections.add(0);
+        sections.add(10);
+        CollapseIndex index = new CollapseIndex();
+        index.reset(sections, 20);
+        index.setCollapsed(0, true);
+        assertEquals(0, index.insertItems(0, 2));
+        assertTrue(index.isCollapsed(2));
+        assertEquals(2, index.toVisiblePosition(2));
+        assertEquals(3, index.toVisiblePosition(12));
+        assertEquals(13, index.getVisibleCount());
+    }
+
+    @Test
+    public void removeItems_updatesInPlace() {
+        CollapseIndex index = of();
+        index.setCollapsed(20, true);
+        assertEquals(CollapseIndex.NO_POSITION, index.removeItems(25, 5));
+        assertEquals(12, index.removeItems(12, 3));
+        //删空第一个Section之前的item
+        assertEquals(0, index.removeItems(0, 5));
+        assertEquals(37, index.getItemCount());
+        assertFalse(index.isCollapsed(0));
+        assertTrue(index.isCollapsed(12));
+        assertEquals(13, index.toVisiblePosition(27));
+        assertEquals(0, index.setCollapsed(0, false));
+        assertEquals(11, index.setCollapsed(0, true));
+    }
+
+    private static SectionIndex sections(int... positions) {
+        SectionIndex sections = new SectionIndex();
+        for (int position : positions) {
+            sections.add(position);
+        }
+        return sections;
+    }
+
+    @Test
+    public void insertSections_splitsSegment() {
+        CollapseIndex index = of();
+        index.setCollapsed(20, true);
+        //10..13插入，其中12是新的Section，原来的10..19归入它
+        SectionIndex sections = sections(5, 20, 40);
+        sections.insertRange(10, 4);
+        sections.add(12);
+        assertEquals(10, index.insertSections(10, 4, sections));
+        assertFalse(index.isCollapsed(12));
+        assertTrue(index.isCollapsed(24));
+        assertSame(index, 54, 5, 12, 24, 44);
+    }
+
+    @Test
+    public void insertSections_insideCollapsedSection() {
+        CollapseIndex index = of();
+        index.setCollapsed(20, true);
+        //25..27插入，26是新的Section，折叠的Section 20 只剩20..25，原来的25..39归入26
+        SectionIndex sections = sections(5, 20, 40);
+        sections.insertRange(25, 3);
+        sections.add(26);
+        assertEquals(CollapseIndex.NO_POSITION, index.insertSections(25, 3, sections));
+        assertEquals(21, index.toVisiblePosition(26));
+        assertTrue(index.isCollapsed(20));
+        assertSame(index, 53, 5, 20, 26, 43);
+    }
+
+    @Test
+    public void insertSections_atFront() {
+        CollapseIndex index = of();
+        index.setCollapsed(40, true);
+        //0..2插入，1是新的Section，原来第一个Section之前的0..4归入它
+        SectionIndex sections = sections(5, 20, 40);
+        sections.insertRange(0, 3);
+        sections.add(1);
+        assertEquals(0, index.insertSections(0, 3, sections));
+        assertTrue(index.isCollapsed(43));
+        assertSame(index, 53, 1, 8, 23, 43);
+
+        //没有第一个Section之前的item时，新插入的Section之前的item成为新的一段
+        SectionIndex more = sections(1, 8, 23, 43);
+        more.insertRange(0, 2);
+        more.add(1);
+        assertEquals(0, index.insertSections(0, 2, more));
+        assertEquals(0, index.setCollapsed(0, true));
+        assertSame(index, 55, 1, 3, 10, 25, 45);
+    }
+
+    @Test
+    public void removeSections_mergesIntoPreviousSegment() {
+        CollapseIndex index = of();
+        index.setCollapsed(40, true);
+        //删除15..24，其中的Section 20 之后剩下的25..39归入Section 5
+        assertEquals(15, index.removeSections(15, 10));
+        assertTrue(index.isCollapsed(30));
+        assertSame(index, 40, 5, 30);
+
+        //从Section的起点删除，剩下的item归入前一段
+        index.setCollapsed(5, true);
+        assertEquals(5, index.removeSections(5, 2));
+        assertFalse(index.isCollapsed(0));
+        assertTrue(index.isCollapsed(28));
+        assertSame(index, 38, 28);
+    }
+
+    @Test
+    public void removeSections_atFront() {
+        CollapseIndex index = of();
+        index.setCollapsed(20, true);
+        //删除0..6，Section 5 剩下的7..19成为第一个Section之前的一段
+        assertEquals(0, index.removeSections(0, 7));
+        assertTrue(index.isCollapsed(13));
+        assertSame(index, 43, 13, 33);
+
+        //删除整个第一段和Section 13
+        assertEquals(0, index.removeSections(0, 14));
+        assertEquals(0, index.toVisiblePosition(0));
+        assertSame(index, 29, 19);
+    }
+
+    /**
+     * 与重新分段并折叠同样的Section一致
+     */
+    private static void assertSame(CollapseIndex index, int itemCount, int... sectionPositions) {
+        SectionIndex sections = new SectionIndex();
+        for (int position : sectionPositions) {
+            sections.add(position);
+        }
+        CollapseIndex fresh = new CollapseIndex();
+        fresh.reset(sections, itemCount);
+        for (int position : sectionPositions) {
+            if (index.isCollapsed(position)) {
+                fresh.setCollapsed(position, true);
+            }
+        }
+        assertEquals(fresh.getVisibleCount(), index.getVisibleCount());
+        for (int i = 0; i < itemCount; i++) {
+            assertEquals(fresh.toVisiblePosition(i), index.toVisiblePosition(i));
+        }
+        for (int i = 0; i < fresh.getVisibleCount(); i++) {
+            assertEquals(fresh.toAdapterPosition(i), index.toAdapterPosition(i));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Rango on 2020/11/27
+ */
+public class ColumnIndexTest {
+
+    @Test
+    public void place_shortestColumnFirst() {
+        ColumnIndex index = new ColumnIndex(3);
+        assertEquals(0, index.place(100));
+        assertEquals(1, index.place(50));
+        assertEquals(2, index.place(80));
+        //最短的是第1列
+        assertEquals(50, index.nextTop());
+        assertEquals(1, index.place(60));
+        //第2列80、第0列100、第1列110
+        assertEquals(2, index.place(10));
+        assertEquals(90, index.topAt(4) + index.heightAt(4));
+        assertEquals(110, index.height());
+    }
+
+    @Test
+    public void place_tieTakesLeftColumn() {
+        ColumnIndex index = new ColumnIndex(2);
+        index.place(100);
+        index.place(100);
+        assertEquals(0, index.place(30));
+        assertEquals(1, index.place(30));
+        assertEquals(100, index.topAt(3));
+    }
+
+    @Test
+    public void truncate_replacesSameAsFresh() {
+        Random random = new Random(7);
+        int[] heights = new int[300];
+        for (int i = 0; i < heights.length; i++) {
+            heights[i] = 20 + random.nextInt(200);
+        }
+        ColumnIndex index = new ColumnIndex(3);
+        for (int height : heights) {
+            index.place(height);
+        }
+        //从120开始高度变化
+        index.truncate(120);
+        assertEquals(120, index.size());
+        ColumnIndex fresh = new ColumnIndex(3);
+        for (int i = 0; i < heights.length; i++) {
+            int height = i < 120 ? heights[i] : heights[i] + 7;
+            fresh.place(height);
+            if (i >= 120) {
+                index.place(height);
+            }
+        }
+        for (int i = 0; i < heights.length; i++) {
+            assertEquals(fresh.columnAt(i), index.columnAt(i));
+            assertEquals(fresh.topAt(i), index.topAt(i));
+        }
+        assertEquals(fresh.height(), index.height());
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(0, index.nextTop());
+    }
+
+    @Test
+    public void visibleRange_matchesBruteForce() {
+        Random random = new Random(11);
+        ColumnIndex index = new ColumnIndex(4);
+        for (int i = 0; i < 500; i++) {
+            //偶尔出现很高的item，跨过很多个其它列的item
+            index.place(random.nextInt(10) == 0 ? 2000 : 10 + random.nextInt(150));
+        }
+        for (int y = -100; y <= index.height() + 100; y += 37) {
+            int indexAt = index.size();
+            int firstVisible = index.size();
+            for (int i = index.size() - 1; i >= 0; i--) {
+                if (index.topAt(i) >= y) {
+                    indexAt = i;
+                }
+                if (index.topAt(i) + index.heightAt(i) > y) {
+                    firstVisible = i;
+                }
+            }
+            assertEquals("indexAt " + y, indexAt, index.indexAt(y));
+            assertEquals("firstVisible " + y, firstVisible, index.firstVisible(y));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void topAt_notPlaced() {
+        ColumnIndex index = new ColumnIndex(2);
+        index.place(10);
+        index.topAt(1);
+    }
+}
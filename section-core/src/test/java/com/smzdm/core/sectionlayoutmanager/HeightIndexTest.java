@@ -0,0 +1,142 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * viewType 0 是Section，1 是item
+ *
+ * @author Rango on 2020/11/24
+ */
+public class HeightIndexTest {
+
+    /**
+     * 每10个item一个Section
+     */
+    private static HeightIndex of(int count) {
+        int[] types = new int[count];
+        for (int i = 0; i < count; i++) {
+            types[i] = i % 10 == 0 ? 0 : 1;
+        }
+        HeightIndex index = new HeightIndex(2);
+        index.reset(types, count);
+        return index;
+    }
+
+    @Test
+    public void estimates_perViewType() {
+        HeightIndex index = of(100);
+        assertEquals(0, index.totalHeight());
+
+        //第一次测量的item作为item的估计高度，同时作为Section的估计值
+        index.measure(1, 100);
+        assertEquals(10000, index.totalHeight());
+        index.measure(0, 200);
+        assertEquals(11000, index.totalHeight());
+        assertTrue(index.isMeasured(0));
+        assertFalse(index.isMeasured(10));
+        assertEquals(200, index.heightAt(10));
+
+        //同一viewType之后的测量只修改自己
+        index.measure(2, 150);
+        assertEquals(11050, index.totalHeight());
+        assertEquals(100, index.getEstimate(1));
+    }
+
+    @Test
+    public void setEstimate_keepsMeasured() {
+        HeightIndex index = of(20);
+        index.setEstimate(1, 100);
+        index.setEstimate(0, 200);
+        index.measure(1, 50);
+        index.setEstimate(1, 80);
+        assertEquals(50, index.heightAt(1));
+        assertEquals(80, index.heightAt(2));
+        assertEquals(2 * 200 + 50 + 17 * 80, index.totalHeight());
+    }
+
+    @Test
+    public void offsetOf_andPositionAt() {
+        HeightIndex index = of(100);
+        index.setEstimate(1, 100);
+        index.setEstimate(0, 200);
+        //0..54：6个Section，49个item
+        assertEquals(6100, index.offsetOf(55));
+        assertEquals(0, index.offsetOf(0));
+        assertEquals(55, index.positionAt(6100));
+        assertEquals(54, index.positionAt(6099));
+        assertEquals(0, index.positionAt(-1));
+        assertEquals(99, index.positionAt(Long.MAX_VALUE));
+        assertEquals(HeightIndex.NO_POSITION, new HeightIndex().positionAt(0));
+    }
+
+    @Test
+    public void insertAndRemove_keepMeasured() {
+        HeightIndex index = of(20);
+        index.setEstimate(1, 100);
+        index.setEstimate(0, 200);
+        index.measure(5, 300);
+        index.insert(0, new int[]{0, 1}, 2);
+        assertEquals(22, index.size());
+        assertTrue(index.isMeasured(7));
+        assertEquals(300, index.heightAt(7));
+        assertEquals(200 + 100 + 200 + 4 * 100, index.offsetOf(7));
+
+        index.remove(0, 3);
+        assertEquals(19, index.size());
+        assertEquals(300, index.heightAt(4));
+        assertEquals(4 * 100, index.offsetOf(4));
+    }
+
+    @Test
+    public void append_sameAsRebuild() {
+        HeightIndex index = new HeightIndex(64);
+        index.setEstimate(0, 200);
+        index.setEstimate(1, 100);
+        //逐条追加，容量足够时不重建
+        for (int position = 0; position < 50; position++) {
+            index.insert(position, new int[]{position % 10 == 0 ? 0 : 1}, 1);
+            index.measure(position, 50 + position);
+        }
+        index.remove(40, 10);
+        index.insert(40, new int[]{1, 1, 0}, 3);
+        long offset = 0;
+        for (int position = 0; position < 43; position++) {
+            assertEquals(offset, index.offsetOf(position));
+            offset += index.heightAt(position);
+        }
+        assertEquals(offset, index.totalHeight());
+        assertEquals(200, index.heightAt(42));
+        assertEquals(41, index.positionAt(index.offsetOf(41) + 1));
+    }
+
+    @Test
+    public void move_carriesHeight() {
+        HeightIndex index = of(20);
+        index.setEstimate(1, 100);
+        index.setEstimate(0, 200);
+        index.measure(2, 300);
+        index.move(2, 8, 1);
+        assertEquals(300, index.heightAt(8));
+        assertEquals(100, index.heightAt(2));
+        index.move(8, 0, 1);
+        assertEquals(300, index.heightAt(0));
+        assertEquals(200, index.heightAt(1));
+        assertEquals(2 * 200 + 300 + 17 * 100, index.totalHeight());
+    }
+
+    @Test
+    public void update_returnsToEstimate() {
+        HeightIndex index = of(20);
+        index.setEstimate(1, 100);
+        index.setEstimate(0, 200);
+        index.measure(3, 300);
+        index.update(3, new int[]{0}, 1);
+        assertFalse(index.isMeasured(3));
+        assertEquals(200, index.heightAt(3));
+        assertEquals(3 * 200 + 17 * 100, index.totalHeight());
+    }
+}
@@ -0,0 +1,174 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Rango on 2020/11/27
+ */
+public class SectionColumnsTest {
+    private static final int SPAN_COUNT = 3;
+
+    private static int[] heights(int count) {
+        Random random = new Random(11);
+        int[] heights = new int[count];
+        for (int i = 0; i < count; i++) {
+            heights[i] = 20 + random.nextInt(200);
+        }
+        return heights;
+    }
+
+    private static ColumnIndex exact(int[] heights) {
+        ColumnIndex index = new ColumnIndex(SPAN_COUNT);
+        for (int height : heights) {
+            index.place(height);
+        }
+        return index;
+    }
+
+    @Test
+    public void floatAt_placesOnlyFromAnchor() {
+        int[] heights = heights(500);
+        SectionColumns columns = new SectionColumns(SPAN_COUNT);
+        columns.floatAt(300, null);
+        assertTrue(columns.isFloating());
+        assertEquals(0, columns.nextTop());
+        for (int i = 300; i < 310; i++) {
+            columns.place(heights[i]);
+        }
+        assertEquals(300, columns.start());
+        assertEquals(310, columns.end());
+        assertFalse(columns.isPlaced(299));
+        //对齐的列从锚点开始依次放置
+        assertEquals(0, columns.topAt(300));
+        assertEquals(1, columns.columnAt(301));
+        assertEquals(0, columns.topAt(302));
+    }
+
+    @Test
+    public void placeAbove_keepsPlacedItems() {
+        int[] heights = heights(200);
+        SectionColumns columns = new SectionColumns(SPAN_COUNT);
+        columns.floatAt(120, null);
+        for (int i = 120; i < 150; i++) {
+            columns.place(heights[i]);
+        }
+        //内容顶部在RecyclerView中的位置
+        int contentTop = 0;
+        int[] tops = new int[200];
+        for (int i = 120; i < 150; i++) {
+            tops[i] = columns.topAt(i);
+        }
+        for (int i = 119; i > 0; i--) {
+            assertEquals(i, columns.previousIndex());
+            contentTop -= columns.placeAbove(heights[i]);
+            tops[i] = contentTop + columns.topAt(i);
+            for (int j = i; j < 150; j++) {
+                assertEquals(tops[j], contentTop + columns.topAt(j));
+            }
+        }
+        assertTrue(columns.isFloating());
+        columns.placeAbove(heights[0]);
+        assertFalse(columns.isFloating());
+    }
+
+    @Test
+    public void placeAbove_settlesSameAsFresh() {
+        int[] heights = heights(200);
+        SectionColumns columns = new SectionColumns(SPAN_COUNT);
+        columns.floatAt(80, null);
+        for (int i = 80; i < 100; i++) {
+            columns.place(heights[i]);
+        }
+        while (columns.isFloating()) {
+            columns.placeAbove(heights[columns.previousIndex()]);
+        }
+        for (int i = 100; i < heights.length; i++) {
+            columns.place(heights[i]);
+        }
+        ColumnIndex fresh = exact(heights);
+        assertEquals(fresh.height(), columns.height());
+        for (int i = 0; i < heights.length; i++) {
+            assertEquals(fresh.columnAt(i), columns.columnAt(i));
+            assertEquals(fresh.topAt(i), columns.topAt(i));
+        }
+    }
+
+    @Test
+    public void visibleRange_coversFloatingItems() {
+        int[] heights = heights(300);
+        SectionColumns columns = new SectionColumns(SPAN_COUNT);
+        columns.floatAt(150, null);
+        for (int i = 150; i < 200; i++) {
+            columns.place(heights[i]);
+        }
+        for (int i = 0; i < 40; i++) {
+            columns.placeAbove(heights[columns.previousIndex()]);
+        }
+        Random random = new Random(3);
+        for (int n = 0; n < 500; n++) {
+            int top = random.nextInt(columns.height() + 200) - 100;
+            int bottom = top + 1 + random.nextInt(600);
+            int from = columns.firstVisible(top);
+            int to = columns.indexAt(bottom);
+            assertTrue(from >= columns.start());
+            assertTrue(to <= columns.end());
+            for (int i = columns.start(); i < columns.end(); i++) {
+                int itemTop = columns.topAt(i);
+                if (itemTop < bottom && itemTop + columns.heightAt(i) > top) {
+                    assertTrue("item " + i + " in [" + top + ", " + bottom + ")", i >= from && i < to);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void linesAt_restoresFollowingItems() {
+        int[] heights = heights(300);
+        ColumnIndex fresh = exact(heights);
+        SectionColumns placed = new SectionColumns(SPAN_COUNT);
+        for (int height : heights) {
+            placed.place(height);
+        }
+        int[] lines = new int[SPAN_COUNT];
+        placed.linesAt(170, lines);
+        assertEquals(0, lines[fresh.columnAt(170)]);
+
+        SectionColumns restored = new SectionColumns(SPAN_COUNT);
+        restored.floatAt(170, lines);
+        for (int i = 170; i < heights.length; i++) {
+            restored.place(heights[i]);
+        }
+        int offset = fresh.topAt(170) - restored.topAt(170);
+        for (int i = 170; i < heights.length; i++) {
+            assertEquals(fresh.columnAt(i), restored.columnAt(i));
+            assertEquals(fresh.topAt(i), restored.topAt(i) + offset);
+        }
+        //锚点之前的item结束在各列的起点
+        restored.placeAbove(heights[169]);
+        assertEquals(restored.topAt(170) + lines[restored.columnAt(169)],
+                restored.topAt(169) + restored.heightAt(169));
+    }
+
+    @Test
+    public void truncate_beforeAnchorClears() {
+        int[] heights = heights(100);
+        SectionColumns columns = new SectionColumns(SPAN_COUNT);
+        columns.floatAt(50, null);
+        for (int i = 50; i < 70; i++) {
+            columns.place(heights[i]);
+        }
+        columns.placeAbove(heights[49]);
+        columns.truncate(60);
+        assertTrue(columns.isFloating());
+        assertEquals(60, columns.end());
+        columns.truncate(49);
+        assertFalse(columns.isFloating());
+        assertEquals(0, columns.end());
+    }
+}
@@ -0,0 +1,179 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Rango on 2020/11/18
+ */
+public class SectionIndexTest {
+
+    private static SectionIndex of(int... positions) {
+        SectionIndex index = new SectionIndex(2);
+        for (int position : positions) {
+            index.add(position);
+        }
+        return index;
+    }
+
+    @Test
+    public void add_keepsSortedAndUnique() {
+        SectionIndex index = of(40, 0, 20, 20, 60);
+        assertEquals(4, index.size());
+        assertEquals(0, index.get(0));
+        assertEquals(20, index.get(1));
+        assertEquals(40, index.get(2));
+        assertEquals(60, index.get(3));
+        assertFalse(index.add(40));
+    }
+
+    @Test
+    public void remove() {
+        SectionIndex index = of(0, 20, 40);
+        assertTrue(index.remove(20));
+        assertFalse(index.remove(20));
+        assertEquals(2, index.size());
+        assertFalse(index.contains(20));
+        assertTrue(index.contains(40));
+    }
+
+    @Test
+    public void indexOfSection() {
+        SectionIndex index = of(5, 20, 40);
+        assertEquals(-1, index.indexOfSection(4));
+        assertEquals(0, index.indexOfSection(5));
+        assertEquals(1, index.indexOfSection(39));
+        assertEquals(2, index.indexOfSection(1000));
+    }
+
+    @Test
+    public void sectionForPosition() {
+        SectionIndex index = of(5, 20, 40);
+        assertEquals(SectionIndex.NO_POSITION, index.sectionForPosition(4));
+        assertEquals(5, index.sectionForPosition(5));
+        assertEquals(5, index.sectionForPosition(19));
+        assertEquals(20, index.sectionForPosition(20));
+        assertEquals(40, index.sectionForPosition(1000));
+        assertEquals(SectionIndex.NO_POSITION, new SectionIndex().sectionForPosition(0));
+    }
+
+    @Test
+    public void nextAndPreviousSection() {
+        SectionIndex index = of(5, 20, 40);
+        assertEquals(5, index.nextSection(0));
+        assertEquals(20, index.nextSection(5));
+        assertEquals(40, index.nextSection(39));
+        assertEquals(SectionIndex.NO_POSITION, index.nextSection(40));
+
+        assertEquals(SectionIndex.NO_POSITION, index.previousSection(5));
+        assertEquals(5, index.previousSection(6));
+        assertEquals(5, index.previousSection(20));
+        assertEquals(40, index.previousSection(41));
+    }
+
+    @Test
+    public void insertRange_shiftsFollowingSections() {
+        SectionIndex index = of(0, 20, 40);
+        index.insertRange(20, 5);
+        assertEquals(0, index.get(0));
+        assertEquals(25, index.get(1));
+        assertEquals(45, index.get(2));
+    }
+
+    @Test
+    public void removeRange_dropsAndShifts() {
+        SectionIndex index = of(0, 20, 40, 60);
+        index.removeRange(15, 30);
+        assertEquals(2, index.size());
+        assertEquals(0, index.get(0));
+        assertEquals(30, index.get(1));
+    }
+
+    @Test
+    public void move_keepsSectionFlag() {
+        SectionIndex index = of(0, 5, 10);
+        //5 -> 8 ：6、7、8 前移一位
+        index.move(5, 8, 1);
+        assertEquals(3, index.size());
+        assertEquals(0, index.get(0));
+        assertEquals(8, index.get(1));
+        assertEquals(10, index.get(2));
+
+        //普通item移动到Section之前
+        index.move(9, 1, 1);
+        assertEquals(0, index.get(0));
+        assertEquals(9, index.get(1));
+        assertEquals(10, index.get(2));
+    }
+
+    @Test
+    public void rangeAtFront_shiftsAllSections() {
+        SectionIndex index = of(3, 20, 40);
+        //reverseLayout的聊天列表在position 0插入新消息
+        index.insertRange(0, 2);
+        assertEquals(5, index.get(0));
+        assertEquals(22, index.get(1));
+        assertEquals(42, index.get(2));
+        assertEquals(22, index.sectionForPosition(30));
+        assertTrue(index.add(1));
+        assertEquals(1, index.get(0));
+
+        index.removeRange(0, 2);
+        assertEquals(3, index.size());
+        assertEquals(3, index.get(0));
+        assertEquals(40, index.get(2));
+        index.clear();
+        index.add(7);
+        assertEquals(7, index.get(0));
+    }
+
+    @Test
+    public void randomRanges_matchFlags() {
+        Random random = new Random(3);
+        List<Boolean> flags = new ArrayList<>();
+        SectionIndex index = new SectionIndex(2);
+        for (int round = 0; round < 2000; round++) {
+            int op = random.nextInt(3);
+            if (op == 0 || flags.size() < 10) {
+                int start = random.nextBoolean() ? 0 : random.nextInt(flags.size() + 1);
+                int count = 1 + random.nextInt(4);
+                index.insertRange(start, count);
+                for (int i = 0; i < count; i++) {
+                    boolean section = random.nextInt(3) == 0;
+                    flags.add(start + i, section);
+                    if (section) {
+                        index.add(start + i);
+                    }
+                }
+            } else if (op == 1) {
+                int start = random.nextBoolean() ? 0 : random.nextInt(flags.size());
+                int count = Math.min(flags.size() - start, 1 + random.nextInt(4));
+                index.removeRange(start, count);
+                flags.subList(start, start + count).clear();
+            } else {
+                int position = random.nextInt(flags.size());
+                flags.set(position, !flags.get(position));
+                if (flags.get(position)) {
+                    index.add(position);
+                } else {
+                    index.remove(position);
+                }
+            }
+            int section = SectionIndex.NO_POSITION;
+            for (int position = 0; position < flags.size(); position++) {
+                if (flags.get(position)) {
+                    section = position;
+                }
+                assertEquals(flags.get(position), index.contains(position));
+                assertEquals(section, index.sectionForPosition(position));
+            }
+        }
+    }
+}
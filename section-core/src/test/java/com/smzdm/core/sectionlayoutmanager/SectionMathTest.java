@@ -0,0 +1,83 @@
+package com.smzdm.core.sectionlayoutmanager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Rango on 2020/11/22
+ */
+public class SectionMathTest {
+
+    private static SectionIndex of(int... positions) {
+        SectionIndex index = new SectionIndex();
+        for (int position : positions) {
+            index.add(position);
+        }
+        return index;
+    }
+
+    @Test
+    public void anchorSection() {
+        SectionIndex index = of(0, 20, 40);
+        assertEquals(SectionIndex.NO_POSITION, SectionMath.anchorSection(index, 0));
+        assertEquals(0, SectionMath.anchorSection(index, 1));
+        assertEquals(0, SectionMath.anchorSection(index, 20));
+        assertEquals(20, SectionMath.anchorSection(index, 21));
+    }
+
+    @Test
+    public void collectChain() {
+        SectionIndex index = of(0, 20, 40, 60);
+        int[] out = new int[3];
+        assertEquals(0, SectionMath.collectChain(index, 60, out));
+        assertEquals(20, out[0]);
+        assertEquals(40, out[1]);
+        assertEquals(60, out[2]);
+
+        assertEquals(1, SectionMath.collectChain(index, 20, out));
+        assertEquals(0, out[1]);
+        assertEquals(20, out[2]);
+
+        assertEquals(3, SectionMath.collectChain(index, SectionIndex.NO_POSITION, out));
+    }
+
+    @Test
+    public void reversed_mirrorsAnchorAndChain() {
+        //reverseLayout：Section是分组中position最大的item，19、39、59、79
+        SectionIndex index = of(19, 39, 59, 79);
+        assertEquals(SectionIndex.NO_POSITION, SectionMath.anchorSection(index, 79, true));
+        assertEquals(79, SectionMath.anchorSection(index, 78, true));
+        assertEquals(79, SectionMath.anchorSection(index, 59, true));
+        assertEquals(59, SectionMath.anchorSection(index, 58, true));
+
+        int[] out = new int[3];
+        assertEquals(0, SectionMath.collectChain(index, 19, out, true));
+        assertEquals(59, out[0]);
+        assertEquals(39, out[1]);
+        assertEquals(19, out[2]);
+        assertEquals(2, SectionMath.collectChain(index, 79, out, true));
+        assertEquals(79, out[2]);
+    }
+
+    @Test
+    public void joinAndPopAreSymmetric() {
+        //栈满：[100, 50]，栈底高度100
+        int threshold = SectionMath.joinThreshold(150, 100, true);
+        assertEquals(50, threshold);
+        //入栈并淘汰栈底后，剩余的高度正好是threshold
+        assertFalse(SectionMath.shouldPop(threshold - 1, 50));
+        assertTrue(SectionMath.shouldPop(threshold, 50));
+
+        assertEquals(150, SectionMath.joinThreshold(150, 100, false));
+    }
+
+    @Test
+    public void pushOffset() {
+        assertEquals(0, SectionMath.pushOffset(200, 150, true));
+        assertEquals(-30, SectionMath.pushOffset(120, 150, true));
+        assertEquals(0, SectionMath.pushOffset(120, 150, false));
+    }
+}